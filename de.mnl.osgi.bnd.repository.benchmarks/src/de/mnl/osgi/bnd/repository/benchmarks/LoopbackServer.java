@@ -0,0 +1,143 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A minimal HTTP server that serves a directory on the loopback
+ * interface. Requests for directories are answered with a listing
+ * in the format used by maven repository servers (links to the
+ * entries, directories with a trailing slash).
+ */
+public class LoopbackServer implements Closeable {
+
+    private final Path root;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Starts a new server for the given directory on an
+     * ephemeral port.
+     *
+     * @param root the directory to serve
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public LoopbackServer(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns the base URI of the served directory.
+     *
+     * @return the uri
+     */
+    public URI uri() {
+        return URI.create("http://"
+            + server.getAddress().getAddress().getHostAddress() + ":"
+            + server.getAddress().getPort() + "/");
+    }
+
+    /**
+     * Returns the number of requests handled so far.
+     *
+     * @return the number of requests
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of (body) bytes sent so far.
+     *
+     * @return the number of bytes
+     */
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Path path = root.resolve(
+                exchange.getRequestURI().getPath().substring(1)).normalize();
+            if (!path.startsWith(root) || !Files.exists(path)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body;
+            if (Files.isDirectory(path)) {
+                body = listing(path).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type",
+                    "text/html; charset=utf-8");
+            } else {
+                body = Files.readAllBytes(path);
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            bytesSent.addAndGet(body.length);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String listing(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return "<html><body>\n" + entries.sorted().map(entry -> {
+                String name = entry.getFileName().toString()
+                    + (Files.isDirectory(entry) ? "/" : "");
+                return "<a href=\"" + name + "\">" + name + "</a><br/>";
+            }).collect(Collectors.joining("\n")) + "\n</body></html>\n";
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
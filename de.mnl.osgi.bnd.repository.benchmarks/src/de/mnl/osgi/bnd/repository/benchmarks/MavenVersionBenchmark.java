@@ -0,0 +1,119 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import de.mnl.osgi.bnd.maven.MavenVersion;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the creation and comparison of {@link MavenVersion}s.
+ * Each invocation processes the complete version list of the
+ * selected corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MavenVersionBenchmark {
+
+    @Param({ "org.apache.logging.log4j", "net.bytebuddy", VersionCorpus.ALL })
+    private String corpus;
+
+    private String[] literals;
+    private String[] parseable;
+    private MavenVersion[] versions;
+
+    /**
+     * Loads the corpus and prepares the parsed versions.
+     */
+    @Setup
+    public void setup() {
+        literals = VersionCorpus.load(corpus).versions()
+            .toArray(new String[0]);
+        parseable = Arrays.stream(literals)
+            .filter(lit -> MavenVersion.validate(lit) == null)
+            .toArray(String[]::new);
+        versions = Arrays.stream(literals).map(MavenVersion::from)
+            .toArray(MavenVersion[]::new);
+    }
+
+    /**
+     * Maven compliant parsing, see {@link MavenVersion#from(String)}.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void from(Blackhole blackhole) {
+        for (String literal : literals) {
+            blackhole.consume(MavenVersion.from(literal));
+        }
+    }
+
+    /**
+     * Permissive parsing, see {@link MavenVersion#parseString(String)}.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void parseString(Blackhole blackhole) {
+        for (String literal : parseable) {
+            blackhole.consume(MavenVersion.parseString(literal));
+        }
+    }
+
+    /**
+     * Compares each version with its successor in the list.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void compareTo(Blackhole blackhole) {
+        for (int i = 1; i < versions.length; i++) {
+            blackhole.consume(versions[i - 1].compareTo(versions[i]));
+        }
+    }
+
+    /**
+     * Sorts the versions, as done when looking for the highest
+     * revision in a range.
+     *
+     * @return the sorted versions
+     */
+    @Benchmark
+    public MavenVersion[] sort() {
+        MavenVersion[] sorted = versions.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import de.mnl.osgi.bnd.maven.MavenVersion;
+import de.mnl.osgi.bnd.maven.MavenVersionRange;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the operations on {@link MavenVersionRange}s. The ranges
+ * are typical of those found in {@code group.properties} files and in
+ * POM dependencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MavenVersionRangeBenchmark {
+
+    @Param({ "[2.9.0,)", "[1.9.8,1.10)", "[,0)",
+        "[1,1.3),[1.5,1.7),[2.5,3.1)" })
+    private String range;
+
+    @Param({ "org.apache.logging.log4j", "net.bytebuddy" })
+    private String corpus;
+
+    private MavenVersionRange subject;
+    private MavenVersionRange restriction;
+    private MavenVersionRange excluded;
+    private MavenVersion[] versions;
+
+    /**
+     * Prepares the ranges and loads the corpus.
+     */
+    @Setup
+    public void setup() {
+        subject = MavenVersionRange.parseRange(range);
+        restriction = MavenVersionRange.parseRange("[1.0,3.0)");
+        excluded = MavenVersionRange.parseRange("[0,1.7.25),[1.7.1000,)");
+        versions = VersionCorpus.load(corpus).versions().stream()
+            .map(MavenVersion::from).toArray(MavenVersion[]::new);
+    }
+
+    /**
+     * See {@link MavenVersionRange#complement()}.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public MavenVersionRange complement() {
+        return subject.complement();
+    }
+
+    /**
+     * See {@link MavenVersionRange#restrict(MavenVersionRange)}.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public MavenVersionRange restrict() {
+        return subject.restrict(restriction);
+    }
+
+    /**
+     * Restricts a dependency range to the versions not excluded, as
+     * done by {@code MavenGroupRepository.narrowVersion}.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public MavenVersionRange narrow() {
+        return excluded.complement().restrict(subject);
+    }
+
+    /**
+     * Checks all versions of the corpus against the range, see
+     * {@link MavenVersionRange#includes}.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void includesVersion(Blackhole blackhole) {
+        for (MavenVersion version : versions) {
+            blackhole.consume(subject.includes(version));
+        }
+    }
+
+    /**
+     * Checks if a range is included in the range, see
+     * {@link MavenVersionRange#includes}.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public boolean includesRange() {
+        return subject.includes(restriction);
+    }
+}
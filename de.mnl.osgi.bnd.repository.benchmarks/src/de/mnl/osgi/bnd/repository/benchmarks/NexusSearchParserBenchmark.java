@@ -0,0 +1,185 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchNGResponseParser;
+import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchResults;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the parsing of Nexus search responses. By default,
+ * the responses are generated from the coordinates of the
+ * {@link VersionCorpus}. Recorded responses can be used instead by
+ * setting the system property {@code nexus.responses} to a directory
+ * with the files ({@code *.xml}). The first file with a
+ * "repositories-item" is used as response to the repositories query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NexusSearchParserBenchmark {
+
+    private static final String[] REPOSITORIES
+        = { "releases", "central", "thirdparty" };
+
+    @Param({ "500", "5000" })
+    private int artifacts;
+
+    private byte[] repositories;
+    private byte[][] searchResults;
+
+    /**
+     * Prepares the responses.
+     */
+    @Setup
+    public void setup() {
+        String recorded = System.getProperty("nexus.responses");
+        if (recorded != null) {
+            loadRecorded(Paths.get(recorded));
+            return;
+        }
+        repositories = repositoriesResponse()
+            .getBytes(StandardCharsets.UTF_8);
+        searchResults = new byte[][] { searchResponse(
+            VersionCorpus.load(VersionCorpus.ALL).coordinates())
+                .getBytes(StandardCharsets.UTF_8) };
+    }
+
+    private void loadRecorded(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<byte[]> responses = files
+                .filter(path -> path.toString().endsWith(".xml")).sorted()
+                .map(path -> {
+                    try {
+                        return Files.readAllBytes(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).collect(Collectors.toList());
+            for (byte[] response : responses) {
+                if (new String(response, StandardCharsets.UTF_8)
+                    .contains("<repositories-item>")) {
+                    repositories = response;
+                    responses.remove(response);
+                    break;
+                }
+            }
+            if (repositories == null) {
+                repositories = repositoriesResponse()
+                    .getBytes(StandardCharsets.UTF_8);
+            }
+            searchResults = responses.toArray(new byte[0][]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String repositoriesResponse() {
+        StringBuilder xml = new StringBuilder(1000);
+        xml.append("<repositories><data>");
+        for (String repo : REPOSITORIES) {
+            xml.append("<repositories-item><id>").append(repo)
+                .append("</id><contentResourceURI>https://nexus.example.org/"
+                    + "content/repositories/")
+                .append(repo).append("</contentResourceURI>"
+                    + "<format>maven2</format>"
+                    + "<repoPolicy>RELEASE</repoPolicy>"
+                    + "</repositories-item>");
+        }
+        xml.append("</data></repositories>");
+        return xml.toString();
+    }
+
+    private String searchResponse(List<String> coordinates) {
+        StringBuilder xml = new StringBuilder(artifacts * 600);
+        xml.append("<searchNGResponse><totalCount>").append(artifacts)
+            .append("</totalCount><from>1</from><count>").append(artifacts)
+            .append("</count><tooManyResults>false</tooManyResults>"
+                + "<collapsed>false</collapsed><data>");
+        for (int i = 0; i < artifacts; i++) {
+            String[] coords = coordinates.get(i % coordinates.size())
+                .split(":");
+            String repo = REPOSITORIES[i % REPOSITORIES.length];
+            xml.append("<artifact><groupId>").append(coords[0])
+                .append("</groupId><artifactId>").append(coords[1])
+                .append("</artifactId><version>")
+                .append(coords[coords.length - 1])
+                .append(i < coordinates.size() ? "" : "-" + i)
+                .append("</version><latestRelease>")
+                .append(coords[coords.length - 1])
+                .append("</latestRelease><latestReleaseRepositoryId>")
+                .append(repo)
+                .append("</latestReleaseRepositoryId><artifactHits>"
+                    + "<artifactHit><repositoryId>")
+                .append(repo)
+                .append("</repositoryId><artifactLinks>"
+                    + "<artifactLink><extension>pom</extension>"
+                    + "</artifactLink><artifactLink><extension>jar"
+                    + "</extension></artifactLink><artifactLink>"
+                    + "<classifier>sources</classifier><extension>jar"
+                    + "</extension></artifactLink></artifactLinks>"
+                    + "</artifactHit></artifactHits></artifact>");
+        }
+        xml.append("</data></searchNGResponse>");
+        return xml.toString();
+    }
+
+    /**
+     * Parses the repositories and the search responses with a new
+     * parser and combines the results, as done for a refresh.
+     *
+     * @return the results
+     * @throws Exception if a problem occurs
+     */
+    @Benchmark
+    public NexusSearchResults parse() throws Exception {
+        NexusSearchNGResponseParser parser
+            = new NexusSearchNGResponseParser();
+        NexusSearchResults results = new NexusSearchResults();
+        results.add(parser.parse(new ByteArrayInputStream(repositories)));
+        for (byte[] response : searchResults) {
+            results.add(parser.parse(new ByteArrayInputStream(response)));
+        }
+        return results;
+    }
+}
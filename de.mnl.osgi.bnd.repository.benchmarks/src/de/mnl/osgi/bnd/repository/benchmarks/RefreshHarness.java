@@ -0,0 +1,179 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import aQute.bnd.http.HttpClient;
+import aQute.libg.reporter.slf4j.Slf4jReporter;
+import de.mnl.osgi.bnd.repository.maven.idxmvn.IndexedMavenRepository;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures {@link IndexedMavenRepository#refresh()} end to end without
+ * network access. The harness generates a {@link SyntheticRepository},
+ * serves it with a {@link LoopbackServer} and creates an
+ * {@link IndexedMavenRepository} with fresh local directories. The
+ * creation (which indexes all requested groups) is reported as
+ * "initial" run, the subsequent refreshes (which reuse the persisted
+ * information) as "refresh" runs.
+ * <P>
+ * For each run, the wall time, the bytes allocated by all threads
+ * (as reported by the {@link com.sun.management.ThreadMXBean}, threads
+ * that terminate during the run are not accounted for), the HTTP
+ * requests served and the time spent in the stages reported by
+ * {@link IndexedMavenRepository#refreshStages()} are printed.
+ * <P>
+ * Parameters are passed as "--name=value" arguments:
+ * <dl>
+ * <dt>groups</dt><dd>number of groups (default: 10)</dd>
+ * <dt>requested</dt><dd>number of groups that are requested, the
+ * remaining groups are indexed as dependencies (default: groups / 2)</dd>
+ * <dt>artifacts</dt><dd>artifacts per group (default: 5)</dd>
+ * <dt>versions</dt><dd>versions per artifact (default: 10)</dd>
+ * <dt>fanOut</dt><dd>dependencies per artifact version (default: 3)</dd>
+ * <dt>jarSize</dt><dd>size of the JARs in bytes (default: 16384)</dd>
+ * <dt>refreshes</dt><dd>number of refreshes (default: 3)</dd>
+ * <dt>dir</dt><dd>working directory (default: a temporary directory)</dd>
+ * </dl>
+ */
+@SuppressWarnings({ "PMD.SystemPrintln", "PMD.DataflowAnomalyAnalysis" })
+public final class RefreshHarness {
+
+    private final Map<String, String> params;
+    private LoopbackServer server;
+
+    private RefreshHarness(Map<String, String> params) {
+        this.params = params;
+    }
+
+    private int intParam(String name, int deflt) {
+        return Integer.parseInt(params.getOrDefault(name,
+            Integer.toString(deflt)));
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments
+     * @throws Exception the exception
+     */
+    @SuppressWarnings({ "PMD.SignatureDeclareThrowsException",
+        "PMD.DoNotTerminateVM" })
+    public static void main(String[] args) throws Exception {
+        Map<String, String> params = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            params.put(arg.substring(2, arg.indexOf('=')),
+                arg.substring(arg.indexOf('=') + 1));
+        }
+        try {
+            new RefreshHarness(params).run();
+        } finally {
+            // The repository's executors are static and not daemons.
+            System.exit(0);
+        }
+    }
+
+    @SuppressWarnings({ "PMD.SignatureDeclareThrowsException",
+        "PMD.AvoidInstantiatingObjectsInLoops" })
+    private void run() throws Exception {
+        int groups = intParam("groups", 10);
+        int requested = intParam("requested", groups / 2);
+        SyntheticRepository synthetic = new SyntheticRepository(groups,
+            intParam("artifacts", 5), intParam("versions", 10),
+            intParam("fanOut", 3), intParam("jarSize", 16_384));
+        Path workDir = params.containsKey("dir")
+            ? Files.createDirectories(Path.of(params.get("dir")))
+            : Files.createTempDirectory("refresh-harness");
+        Path remote = workDir.resolve("remote");
+        Path localRepo = workDir.resolve("local");
+        Path indexDb = workDir.resolve("indexed-maven");
+        System.out.printf("Generating %d groups x %d artifacts x %d versions"
+            + " (fan out %d, JAR size %d) in %s...%n", synthetic.groups(),
+            synthetic.artifacts(), synthetic.versions(), synthetic.fanOut(),
+            synthetic.jarSize(), workDir);
+        synthetic.generate(remote);
+        // The groups with the highest indices have the most dependencies.
+        for (int group = groups - requested; group < groups; group++) {
+            SyntheticRepository
+                .request(indexDb.resolve(SyntheticRepository.groupId(group)));
+        }
+
+        try (LoopbackServer srv = new LoopbackServer(remote);
+                HttpClient client = new HttpClient()) {
+            server = srv;
+            IndexedMavenRepository repository = measure("initial",
+                () -> new IndexedMavenRepository("Benchmark",
+                    Collections.singletonList(srv.uri().toURL()),
+                    Collections.emptyList(), localRepo.toFile(),
+                    indexDb.toFile(), new Slf4jReporter(RefreshHarness.class),
+                    client, Boolean.parseBoolean(
+                        params.getOrDefault("logIndexing", "false"))));
+            report(repository);
+            for (int run = 1; run <= intParam("refreshes", 3); run++) {
+                measure("refresh " + run, repository::refresh);
+                report(repository);
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private <T> T measure(String label, Callable<T> action) throws Exception {
+        long requestsBefore = server.requests();
+        long bytesBefore = server.bytesSent();
+        long allocBefore = allocatedBytes();
+        long started = System.nanoTime();
+        T result = action.call();
+        Duration took = Duration.ofNanos(System.nanoTime() - started);
+        long allocated = allocatedBytes() - allocBefore;
+        System.out.printf("%-10s wall %8d ms, allocated %8.1f MB,"
+            + " %6d requests (%.1f MB)%n", label, took.toMillis(),
+            allocated / 1_048_576.0, server.requests() - requestsBefore,
+            (server.bytesSent() - bytesBefore) / 1_048_576.0);
+        return result;
+    }
+
+    private static void report(IndexedMavenRepository repository) {
+        repository.refreshStages().forEach((stage, took) -> System.out
+            .printf("    %-10s %8d ms%n", stage, took.toMillis()));
+        System.out.printf("    %-10s %8d%n", "resources",
+            repository.getResources().size());
+    }
+
+    private static long allocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+        long sum = 0;
+        for (long allocated : threads
+            .getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                sum += allocated;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Generates a file based maven repository with synthetic artifacts.
+ * <P>
+ * The repository has {@link #groups()} groups with group ids
+ * "bench.group&lt;n&gt;". Each group has {@link #artifacts()} artifacts
+ * with {@link #versions()} versions each. Every version of an artifact
+ * in group &lt;n&gt; depends on {@link #fanOut()} artifacts (of the same
+ * version) from groups with a lower index. Thus the artifacts in
+ * group 0 have no dependencies. The generated JARs are OSGi bundles
+ * with an additional, incompressible entry that makes them (about)
+ * {@link #jarSize()} bytes large.
+ * <P>
+ * The generated content is deterministic.
+ */
+@SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+public class SyntheticRepository {
+
+    private final int groups;
+    private final int artifacts;
+    private final int versions;
+    private final int fanOut;
+    private final int jarSize;
+
+    /**
+     * Creates a new generator with the given parameters.
+     *
+     * @param groups the number of groups
+     * @param artifacts the number of artifacts per group
+     * @param versions the number of versions per artifact
+     * @param fanOut the number of dependencies per artifact version
+     * @param jarSize the (approximate) size of a JAR in bytes
+     */
+    public SyntheticRepository(int groups, int artifacts, int versions,
+            int fanOut, int jarSize) {
+        this.groups = groups;
+        this.artifacts = artifacts;
+        this.versions = versions;
+        this.fanOut = fanOut;
+        this.jarSize = jarSize;
+    }
+
+    /**
+     * Returns the number of groups.
+     *
+     * @return the number of groups
+     */
+    public int groups() {
+        return groups;
+    }
+
+    /**
+     * Returns the number of artifacts per group.
+     *
+     * @return the number of artifacts
+     */
+    public int artifacts() {
+        return artifacts;
+    }
+
+    /**
+     * Returns the number of versions per artifact.
+     *
+     * @return the number of versions
+     */
+    public int versions() {
+        return versions;
+    }
+
+    /**
+     * Returns the number of dependencies per artifact version.
+     *
+     * @return the fan out
+     */
+    public int fanOut() {
+        return fanOut;
+    }
+
+    /**
+     * Returns the approximate size of the generated JARs.
+     *
+     * @return the size
+     */
+    public int jarSize() {
+        return jarSize;
+    }
+
+    /**
+     * Returns the group id of the group with the given index.
+     *
+     * @param group the index
+     * @return the group id
+     */
+    public static String groupId(int group) {
+        return "bench.group" + group;
+    }
+
+    /**
+     * Returns the artifact id of the artifact with the given index.
+     *
+     * @param artifact the index
+     * @return the artifact id
+     */
+    public static String artifactId(int artifact) {
+        return "artifact" + artifact;
+    }
+
+    /**
+     * Returns the version with the given index.
+     *
+     * @param version the index
+     * @return the version
+     */
+    public static String version(int version) {
+        return "1." + version + ".0";
+    }
+
+    /**
+     * Generates the repository in the given directory.
+     *
+     * @param root the root directory of the repository
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    public void generate(Path root) throws IOException {
+        for (int group = 0; group < groups; group++) {
+            for (int artifact = 0; artifact < artifacts; artifact++) {
+                Path artifactDir = root.resolve(
+                    groupId(group).replace('.', '/'))
+                    .resolve(artifactId(artifact));
+                Files.createDirectories(artifactDir);
+                writeMetadata(artifactDir, group, artifact);
+                for (int version = 0; version < versions; version++) {
+                    Path versionDir = artifactDir.resolve(version(version));
+                    Files.createDirectories(versionDir);
+                    String base = artifactId(artifact) + "-" + version(version);
+                    writeWithChecksum(versionDir.resolve(base + ".pom"),
+                        pom(group, artifact, version)
+                            .getBytes(StandardCharsets.UTF_8));
+                    writeWithChecksum(versionDir.resolve(base + ".jar"),
+                        jar(group, artifact, version));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the dependencies of the given artifact as pairs of
+     * group and artifact index.
+     *
+     * @param group the group index
+     * @param artifact the artifact index
+     * @return the dependencies
+     */
+    public List<int[]> dependencies(int group, int artifact) {
+        List<int[]> result = new ArrayList<>();
+        if (group == 0) {
+            return result;
+        }
+        for (int dep = 0; dep < fanOut; dep++) {
+            int[] coords = { (group * 7 + dep * 13) % group,
+                (artifact + dep) % artifacts };
+            if (result.stream().noneMatch(c -> c[0] == coords[0]
+                && c[1] == coords[1])) {
+                result.add(coords);
+            }
+        }
+        return result;
+    }
+
+    private void writeMetadata(Path artifactDir, int group, int artifact)
+            throws IOException {
+        StringBuilder versionList = new StringBuilder();
+        for (int version = 0; version < versions; version++) {
+            versionList.append("      <version>").append(version(version))
+                .append("</version>\n");
+        }
+        String latest = version(versions - 1);
+        writeWithChecksum(artifactDir.resolve("maven-metadata.xml"),
+            ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata>\n"
+                + "  <groupId>" + groupId(group) + "</groupId>\n"
+                + "  <artifactId>" + artifactId(artifact) + "</artifactId>\n"
+                + "  <versioning>\n"
+                + "    <latest>" + latest + "</latest>\n"
+                + "    <release>" + latest + "</release>\n"
+                + "    <versions>\n" + versionList
+                + "    </versions>\n"
+                + "    <lastUpdated>20240101000000</lastUpdated>\n"
+                + "  </versioning>\n"
+                + "</metadata>\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String pom(int group, int artifact, int version) {
+        StringBuilder deps = new StringBuilder();
+        for (int[] dep : dependencies(group, artifact)) {
+            deps.append("    <dependency>\n      <groupId>")
+                .append(groupId(dep[0])).append("</groupId>\n      <artifactId>")
+                .append(artifactId(dep[1]))
+                .append("</artifactId>\n      <version>")
+                .append(version(version)).append("</version>\n    </dependency>\n");
+        }
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+            + "  <modelVersion>4.0.0</modelVersion>\n"
+            + "  <groupId>" + groupId(group) + "</groupId>\n"
+            + "  <artifactId>" + artifactId(artifact) + "</artifactId>\n"
+            + "  <version>" + version(version) + "</version>\n"
+            + "  <packaging>jar</packaging>\n"
+            + "  <dependencies>\n" + deps + "  </dependencies>\n"
+            + "</project>\n";
+    }
+
+    private byte[] jar(int group, int artifact, int version)
+            throws IOException {
+        String bsn = groupId(group) + "." + artifactId(artifact);
+        Manifest manifest = new Manifest();
+        Attributes attrs = manifest.getMainAttributes();
+        attrs.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attrs.putValue("Bundle-ManifestVersion", "2");
+        attrs.putValue("Bundle-SymbolicName", bsn);
+        attrs.putValue("Bundle-Version", version(version));
+        attrs.putValue("Export-Package",
+            bsn + ";version=\"" + version(version) + "\"");
+        StringBuilder imports = new StringBuilder();
+        for (int[] dep : dependencies(group, artifact)) {
+            if (imports.length() > 0) {
+                imports.append(',');
+            }
+            imports.append(groupId(dep[0])).append('.')
+                .append(artifactId(dep[1])).append(";version=\"[")
+                .append(version(version)).append(",2)\"");
+        }
+        if (imports.length() > 0) {
+            attrs.putValue("Import-Package", imports.toString());
+        }
+        try (var bytes = new ByteArrayOutputStream(jarSize + 1024);
+                JarOutputStream jar = new JarOutputStream(bytes, manifest)) {
+            jar.putNextEntry(new JarEntry(bsn.replace('.', '/') + "/data.bin"));
+            byte[] data = new byte[jarSize];
+            new Random(31L * (group * 1000 + artifact) + version)
+                .nextBytes(data);
+            jar.write(data);
+            jar.closeEntry();
+            jar.finish();
+            return bytes.toByteArray();
+        }
+    }
+
+    private static void writeWithChecksum(Path path, byte[] content)
+            throws IOException {
+        Files.write(path, content);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            Files.write(path.resolveSibling(path.getFileName() + ".sha1"),
+                hex.toString().getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes a {@code group.properties} that requests all versions
+     * of all artifacts of the group.
+     *
+     * @param groupDir the group directory in the indexed maven repository
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static void request(Path groupDir) throws IOException {
+        Files.createDirectories(groupDir);
+        try (Writer out = Files.newBufferedWriter(
+            groupDir.resolve("group.properties"), StandardCharsets.UTF_8)) {
+            out.write("versions = [0,)\n");
+        }
+    }
+}
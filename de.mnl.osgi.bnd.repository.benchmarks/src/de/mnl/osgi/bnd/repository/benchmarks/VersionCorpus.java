@@ -0,0 +1,120 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Provides realistic maven coordinates for the benchmarks. The
+ * coordinates are taken from the "from" attributes of the
+ * "bnd.info" capabilities in the index files of the workspace's
+ * indexed maven repository ({@code cnf/indexed-maven}).
+ * <P>
+ * The location of the indexed maven repository can be overridden
+ * with the system property {@code corpus.dir}.
+ */
+public final class VersionCorpus {
+
+    /** Selects all groups when passed to {@link #load(String)}. */
+    public static final String ALL = "all";
+
+    private static final Pattern FROM_ATTR = Pattern.compile(
+        "<attribute\\s+name=\"from\"\\s+value=\"([^\"]+)\"");
+
+    private final List<String> coordinates;
+
+    private VersionCorpus(List<String> coordinates) {
+        this.coordinates = Collections.unmodifiableList(coordinates);
+    }
+
+    /**
+     * Loads the coordinates from the index of the given group.
+     * If {@code group} is {@link #ALL}, the coordinates from all
+     * index files (including the dependency groups) are loaded.
+     *
+     * @param group the group
+     * @return the version corpus
+     */
+    @SuppressWarnings("PMD.AvoidDuplicateLiterals")
+    public static VersionCorpus load(String group) {
+        Path base = Paths.get(System.getProperty("corpus.dir",
+            "../cnf/indexed-maven"));
+        Set<String> result = new LinkedHashSet<>();
+        try (Stream<Path> files = ALL.equals(group) ? Files.walk(base)
+            : Stream.of(base.resolve(group).resolve("index.xml"))) {
+            files.filter(path -> path.getFileName().toString()
+                .equals("index.xml") && Files.isReadable(path))
+                .sorted().forEach(path -> collect(path, result));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalStateException("No coordinates found for "
+                + group + " in " + base.toAbsolutePath());
+        }
+        return new VersionCorpus(new ArrayList<>(result));
+    }
+
+    private static void collect(Path index, Set<String> result) {
+        try {
+            Matcher matcher = FROM_ATTR.matcher(
+                new String(Files.readAllBytes(index), StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                result.add(matcher.group(1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the coordinates ("groupId:artifactId:version") in the
+     * order found.
+     *
+     * @return the coordinates
+     */
+    public List<String> coordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Returns the distinct version literals from the coordinates.
+     *
+     * @return the versions
+     */
+    public List<String> versions() {
+        return coordinates.stream()
+            .map(coords -> coords.substring(coords.lastIndexOf(':') + 1))
+            .distinct().collect(Collectors.toList());
+    }
+}
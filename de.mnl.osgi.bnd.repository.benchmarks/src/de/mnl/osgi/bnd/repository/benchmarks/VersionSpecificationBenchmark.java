@@ -0,0 +1,91 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.benchmarks;
+
+import aQute.maven.api.Program;
+import aQute.maven.api.Revision;
+import de.mnl.osgi.bnd.repository.maven.idxmvn.VersionSpecification;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the selection of revisions for indexing, see
+ * {@link VersionSpecification#toSelected(VersionSpecification[], Revision)}.
+ * The version specifications resemble those used in the
+ * workspace's {@code group.properties} files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionSpecificationBenchmark {
+
+    @Param({ "org.apache.logging.log4j", "net.bytebuddy" })
+    private String corpus;
+
+    private VersionSpecification[] specs;
+    private Revision[] revisions;
+
+    /**
+     * Creates the specifications and the revisions from the corpus.
+     */
+    @Setup
+    public void setup() {
+        Properties props = new Properties();
+        props.setProperty("versions", "[,0)");
+        props.setProperty("log4j-api;versions", "[2.9.0,)");
+        props.setProperty("log4j-core;versions", "[2.9.0,)");
+        props.setProperty("log4j-core;exclude", "[3.0.0-alpha1,)");
+        props.setProperty("byte-buddy;versions", "[1.9.8,1.10)");
+        props.setProperty("byte-buddy-agent;forcedVersions", "[1.9.8,1.10)");
+        specs = VersionSpecification.parse(props);
+        revisions = VersionCorpus.load(corpus).coordinates().stream()
+            .map(coords -> {
+                String[] parts = coords.split(":");
+                return Program.valueOf(parts[0], parts[1])
+                    .version(parts[parts.length - 1]);
+            }).toArray(Revision[]::new);
+    }
+
+    /**
+     * Matches all revisions of the corpus against the specifications.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void toSelected(Blackhole blackhole) {
+        for (Revision revision : revisions) {
+            blackhole.consume(VersionSpecification.toSelected(specs, revision));
+        }
+    }
+}
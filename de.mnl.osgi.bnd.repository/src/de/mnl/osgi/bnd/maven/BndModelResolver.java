@@ -25,6 +25,7 @@ import aQute.maven.provider.MavenRepository;
 import aQute.service.reporter.Reporter;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
+import java.util.function.Consumer;
 import org.apache.maven.building.FileSource;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Parent;
@@ -44,6 +45,7 @@ public class BndModelResolver implements ModelResolver, Cloneable {
     private final MavenRepository bndRepository;
     @SuppressWarnings({ "PMD.SingularField", "unused" })
     private final Reporter reporter;
+    private UnresolvableCache unresolvable = new UnresolvableCache();
 
     /**
      * Instantiates a new bnd model resolver.
@@ -56,85 +58,110 @@ public class BndModelResolver implements ModelResolver, Cloneable {
         this.reporter = reporter;
     }
 
+    /**
+     * Sets the cache for unresolvable coordinates. Coordinates found
+     * in the cache are reported as unresolvable without contacting
+     * the backing repositories. Defaults to a cache held in memory.
+     *
+     * @param unresolvable the cache
+     * @return the model resolver
+     */
+    public BndModelResolver setUnresolvableCache(
+            UnresolvableCache unresolvable) {
+        this.unresolvable = unresolvable;
+        return this;
+    }
+
     @Override
-    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
-        "PMD.PreserveStackTrace" })
     public ModelSource resolveModel(String groupId, String artifactId,
             String version) throws UnresolvableModelException {
+        return resolvePom(groupId, artifactId, version, null);
+    }
+
+    @Override
+    public ModelSource resolveModel(Parent parent)
+            throws UnresolvableModelException {
+        return resolvePom(parent.getGroupId(), parent.getArtifactId(),
+            parent.getVersion(), parent::setVersion);
+    }
+
+    @Override
+    public ModelSource resolveModel(Dependency dependency)
+            throws UnresolvableModelException {
+        return resolvePom(dependency.getGroupId(), dependency.getArtifactId(),
+            dependency.getVersion(), dependency::setVersion);
+    }
+
+    /**
+     * Resolves the POM. If {@code versionSetter} is not {@code null},
+     * the version is resolved with the backing repository (it may be
+     * a range or a snapshot version) and the resolved version is passed
+     * to the setter.
+     */
+    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
+        "PMD.PreserveStackTrace", "PMD.AvoidRethrowingException" })
+    private ModelSource resolvePom(String groupId, String artifactId,
+            String version, Consumer<String> versionSetter)
+            throws UnresolvableModelException {
+        // Only concrete versions are cached, a range may be satisfied
+        // by a version released later.
+        String coordinates = MavenVersionSpecification.isRange(version)
+            ? null
+            : groupId + ":" + artifactId + ":pom:" + version;
+        if (coordinates != null && unresolvable.isUnresolvable(coordinates)) {
+            throw new UnresolvableModelException("Not found (cached).",
+                groupId, artifactId, version);
+        }
         Revision revision
             = Program.valueOf(groupId, artifactId).version(version);
-        Archive pomArchive = revision.getPomArchive();
         try {
+            Archive pomArchive;
+            if (versionSetter == null) {
+                pomArchive = revision.getPomArchive();
+            } else {
+                pomArchive
+                    = bndRepository.getResolvedArchive(revision, "pom", "");
+                if (pomArchive == null) {
+                    throw notFound(coordinates, groupId, artifactId, version);
+                }
+                versionSetter
+                    .accept(pomArchive.getRevision().version.toString());
+            }
             File pomFile = bndRepository.get(pomArchive).getValue();
             if (pomFile == null) {
-                throw new UnresolvableModelException("Not found.", groupId,
-                    artifactId, version);
+                throw notFound(coordinates, groupId, artifactId, version);
             }
             return new FileModelSource(pomFile);
         } catch (InvocationTargetException e) {
+            remember(coordinates, e.getCause());
             throw new UnresolvableModelException(e.getCause(), groupId,
                 artifactId, version);
+        } catch (UnresolvableModelException e) {
+            throw e;
         } catch (Exception e) {
+            remember(coordinates, e);
             throw new UnresolvableModelException(e, groupId, artifactId,
                 version);
         }
     }
 
-    @Override
-    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
-        "PMD.PreserveStackTrace" })
-    public ModelSource resolveModel(Parent parent)
-            throws UnresolvableModelException {
-        Revision revision
-            = Program.valueOf(parent.getGroupId(), parent.getArtifactId())
-                .version(parent.getVersion());
-        try {
-            Archive pomArchive
-                = bndRepository.getResolvedArchive(revision, "pom", "");
-            parent.setVersion(pomArchive.getRevision().version.toString());
-            File pomFile = bndRepository.get(pomArchive).getValue();
-            if (pomFile == null) {
-                throw new UnresolvableModelException("Not found.",
-                    parent.getGroupId(), parent.getArtifactId(),
-                    parent.getVersion());
-            }
-            return new FileModelSource(pomFile);
-        } catch (InvocationTargetException e) {
-            throw new UnresolvableModelException(e.getCause(),
-                parent.getGroupId(), parent.getArtifactId(),
-                parent.getVersion());
-        } catch (Exception e) {
-            throw new UnresolvableModelException(e, parent.getGroupId(),
-                parent.getArtifactId(), parent.getVersion());
+    private UnresolvableModelException notFound(String coordinates,
+            String groupId, String artifactId, String version) {
+        if (coordinates != null) {
+            unresolvable.add(coordinates);
         }
+        return new UnresolvableModelException("Not found.", groupId,
+            artifactId, version);
     }
 
-    @Override
-    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
-        "PMD.PreserveStackTrace" })
-    public ModelSource resolveModel(Dependency dependency)
-            throws UnresolvableModelException {
-        Revision revision
-            = Program.valueOf(dependency.getGroupId(),
-                dependency.getArtifactId()).version(dependency.getVersion());
-        try {
-            Archive pomArchive
-                = bndRepository.getResolvedArchive(revision, "pom", "");
-            dependency.setVersion(pomArchive.getRevision().version.toString());
-            File pomFile = bndRepository.get(pomArchive).getValue();
-            if (pomFile == null) {
-                throw new UnresolvableModelException("Not found.",
-                    dependency.getGroupId(), dependency.getArtifactId(),
-                    dependency.getVersion());
-            }
-            return new FileModelSource(pomFile);
-        } catch (InvocationTargetException e) {
-            throw new UnresolvableModelException(e.getCause(),
-                dependency.getGroupId(), dependency.getArtifactId(),
-                dependency.getVersion());
-        } catch (Exception e) {
-            throw new UnresolvableModelException(e, dependency.getGroupId(),
-                dependency.getArtifactId(), dependency.getVersion());
+    /**
+     * Remember the coordinates as unresolvable if the failure reports
+     * a missing file (see {@link UnresolvableCache#isNotFound}). Other
+     * failures may be temporary.
+     */
+    private void remember(String coordinates, Throwable failure) {
+        if (coordinates != null && UnresolvableCache.isNotFound(failure)) {
+            unresolvable.add(coordinates);
         }
     }
 
@@ -0,0 +1,292 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe cache with a bounded total weight. The weight of
+ * each entry is determined by a weigher function when the entry
+ * is added. When the total weight exceeds the limit, the least
+ * recently used entries are evicted until the total weight has
+ * dropped below 90% of the limit. Evicting in batches keeps the
+ * bookkeeping for the access order cheap: lookups only update a
+ * time stamp, sorting happens only when evicting.
+ * <P>
+ * The cache maintains statistics about hits, misses and evictions.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final ToLongFunction<V> weigher;
+    private volatile long maxWeight;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong weight = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param name the name (used in the statistics)
+     * @param maxWeight the maximum total weight
+     * @param weigher the function that determines an entry's weight
+     */
+    public BoundedCache(String name, long maxWeight,
+            ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Creates a new cache that weighs each entry with 1, i.e. whose
+     * size is bounded.
+     *
+     * @param name the name (used in the statistics)
+     * @param maxSize the maximum number of entries
+     */
+    public BoundedCache(String name, long maxSize) {
+        this(name, maxSize, value -> 1);
+    }
+
+    /**
+     * Sets the maximum total weight. Entries are evicted immediately
+     * if the current total weight exceeds the new limit.
+     *
+     * @param maxWeight the maximum total weight
+     * @return the cache
+     */
+    public BoundedCache<K, V> setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        evictIfNecessary();
+        return this;
+    }
+
+    /**
+     * Returns the cached value for the key, computing it with the 
+     * given function if no value is cached. If the function returns
+     * {@code null}, nothing is cached.
+     *
+     * @param key the key
+     * @param function the function
+     * @return the value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            entry.lastUsed = clock.incrementAndGet();
+            return entry.value;
+        }
+        boolean[] computed = new boolean[1];
+        entry = entries.computeIfAbsent(key, k -> {
+            computed[0] = true;
+            V value = function.apply(k);
+            if (value == null) {
+                return null;
+            }
+            Entry<V> created = new Entry<>(value, weigher.applyAsLong(value),
+                clock.incrementAndGet());
+            weight.addAndGet(created.weight);
+            return created;
+        });
+        if (computed[0]) {
+            misses.increment();
+            evictIfNecessary();
+        } else {
+            hits.increment();
+        }
+        return entry == null ? null : entry.value;
+    }
+
+    private void evictIfNecessary() {
+        if (weight.get() <= maxWeight) {
+            return;
+        }
+        synchronized (this) {
+            if (weight.get() <= maxWeight) {
+                return;
+            }
+            List<Map.Entry<K, Entry<V>>> candidates
+                = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(
+                candidate -> candidate.getValue().lastUsed));
+            long target = maxWeight / 10 * 9;
+            for (Map.Entry<K, Entry<V>> candidate : candidates) {
+                if (weight.get() <= target) {
+                    break;
+                }
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    weight.addAndGet(-candidate.getValue().weight);
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entries with keys that match the predicate.
+     *
+     * @param filter the filter
+     */
+    public void removeIf(Predicate<? super K> filter) {
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            if (filter.test(entry.getKey())
+                && entries.remove(entry.getKey(), entry.getValue())) {
+                weight.addAndGet(-entry.getValue().weight);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        removeIf(key -> true);
+    }
+
+    /**
+     * Returns the current statistics.
+     *
+     * @return the statistics
+     */
+    public Stats stats() {
+        return new Stats(name, entries.size(), weight.get(), maxWeight,
+            hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * A cache entry.
+     *
+     * @param <V> the value type
+     */
+    private static final class Entry<V> {
+        public final V value;
+        public final long weight;
+        public volatile long lastUsed;
+
+        private Entry(V value, long weight, long lastUsed) {
+            this.value = value;
+            this.weight = weight;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * The statistics of a cache.
+     */
+    @SuppressWarnings("PMD.DataClass")
+    public static final class Stats {
+        private final String name;
+        private final long size;
+        private final long weight;
+        private final long maxWeight;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        private Stats(String name, long size, long weight, long maxWeight,
+                long hits, long misses, long evictions) {
+            this.name = name;
+            this.size = size;
+            this.weight = weight;
+            this.maxWeight = maxWeight;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Returns the number of entries.
+         *
+         * @return the size
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Returns the total weight of the entries.
+         *
+         * @return the weight
+         */
+        public long weight() {
+            return weight;
+        }
+
+        /**
+         * Returns the number of lookups that found a cached value.
+         *
+         * @return the hits
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * Returns the number of lookups that had to compute the value.
+         *
+         * @return the misses
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * Returns the number of evicted entries.
+         *
+         * @return the evictions
+         */
+        public long evictions() {
+            return evictions;
+        }
+
+        /**
+         * Returns the ratio of hits to lookups.
+         *
+         * @return the hit rate
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 1.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d entries, weight %d/%d, "
+                + "%d hits, %d misses (%.1f%%), %d evictions", name, size,
+                weight, maxWeight, hits, misses, hitRate() * 100, evictions);
+        }
+    }
+}
@@ -26,7 +26,6 @@ import aQute.maven.api.Revision;
 import aQute.maven.provider.MavenBackingRepository;
 import aQute.maven.provider.MavenRepository;
 import aQute.maven.provider.MetadataParser;
-import aQute.maven.provider.MetadataParser.RevisionMetadata;
 import aQute.service.reporter.Reporter;
 import static de.mnl.osgi.bnd.maven.RepositoryUtils.rethrow;
 import static de.mnl.osgi.bnd.maven.RepositoryUtils.unthrow;
@@ -35,13 +34,16 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -90,13 +92,28 @@ import org.osgi.util.promise.Promise;
 public class CompositeMavenRepository implements Closeable {
 
     public static final Pattern COORDS_SPLITTER = Pattern.compile("\\s*;\\s*");
+    /** The default time to live of cached snapshot metadata. */
+    public static final Duration DEFAULT_SNAPSHOT_TTL = Duration.ofMinutes(10);
+    /** The default limit for the cached programs, weighted by the
+     * number of their revisions. */
+    public static final long DEFAULT_PROGRAM_CACHE_WEIGHT = 200_000;
+    /** The default maximum number of cached models. */
+    public static final long DEFAULT_MODEL_CACHE_SIZE = 20_000;
     private final MavenRepository bndMavenRepo;
+    private final Executor executor;
     private final Reporter reporter;
-    private final Map<Program, List<BoundRevision>> programCache
-        = new ConcurrentHashMap<>();
-    private final Map<Revision, Model> modelCache
+    private final BoundedCache<Program, List<BoundRevision>> programCache
+        = new BoundedCache<>("programs", DEFAULT_PROGRAM_CACHE_WEIGHT,
+            revisions -> 1 + revisions.size());
+    private final BoundedCache<Revision, Model> modelCache
+        = new BoundedCache<>("models", DEFAULT_MODEL_CACHE_SIZE);
+    private final Map<String, SnapshotMetadata> snapshotCache
         = new ConcurrentHashMap<>();
+    private volatile long snapshotTtl = DEFAULT_SNAPSHOT_TTL.toNanos();
+    private volatile long snapshotsValidSince = System.nanoTime();
     private final BndModelResolver modelResolver;
+    private final SharedModelCache rawModelCache = new SharedModelCache();
+    private UnresolvableCache unresolvable = new UnresolvableCache();
     private final ModelBuilder modelBuilder;
 
     /**
@@ -124,8 +141,9 @@ public class CompositeMavenRepository implements Closeable {
             List<MavenBackingRepository> snapshotRepos, Executor executor,
             Reporter reporter)
             throws Exception {
-        bndMavenRepo = new MavenRepository(base, repoId, releaseRepos,
+        bndMavenRepo = new PooledMavenRepository(base, repoId, releaseRepos,
             snapshotRepos, executor, reporter);
+        this.executor = executor;
         this.reporter = reporter;
         modelResolver = new BndModelResolver(bndMavenRepo, reporter);
 
@@ -183,11 +201,97 @@ public class CompositeMavenRepository implements Closeable {
     }
 
     /**
-     * Reset any cached information.
+     * Sets the time that the metadata obtained for a snapshot revision
+     * is considered to be up-to-date. When used after this time,
+     * the metadata is revalidated with the backing repository.
+     * Defaults to {@link #DEFAULT_SNAPSHOT_TTL}.
+     *
+     * @param ttl the time to live
+     * @return the composite maven repository
+     */
+    public CompositeMavenRepository setSnapshotTtl(Duration ttl) {
+        snapshotTtl = ttl.toNanos();
+        return this;
+    }
+
+    /**
+     * Sets the cache for coordinates that could not be resolved.
+     * Defaults to a cache held in memory. Unlike the other cached
+     * information, the content of this cache is not dropped by
+     * {@link #reset()}, entries expire after the cache's time to live.
+     *
+     * @param unresolvable the cache
+     * @return the composite maven repository
+     */
+    public CompositeMavenRepository
+            setUnresolvableCache(UnresolvableCache unresolvable) {
+        this.unresolvable = unresolvable;
+        modelResolver.setUnresolvableCache(unresolvable);
+        return this;
+    }
+
+    /**
+     * Returns the cache for coordinates that could not be resolved.
+     *
+     * @return the cache
+     */
+    public UnresolvableCache unresolvableCache() {
+        return unresolvable;
+    }
+
+    /**
+     * Sets the limits of the caches for the programs' revisions and
+     * the models. The programs are weighted by the number of their
+     * revisions. The least recently used entries are evicted when
+     * a limit is exceeded.
+     *
+     * @param programsWeight the maximum total weight of the programs
+     * @param models the maximum number of models
+     * @return the composite maven repository
+     */
+    public CompositeMavenRepository setCacheLimits(long programsWeight,
+            long models) {
+        programCache.setMaxWeight(programsWeight);
+        modelCache.setMaxWeight(models);
+        return this;
+    }
+
+    /**
+     * Returns the statistics of the caches.
+     *
+     * @return the statistics
+     */
+    public List<BoundedCache.Stats> cacheStats() {
+        List<BoundedCache.Stats> result = new ArrayList<>();
+        result.add(programCache.stats());
+        result.add(modelCache.stats());
+        return result;
+    }
+
+    /**
+     * Reset any cached information. Cached snapshot metadata is
+     * kept, but revalidated with the backing repository when
+     * used the next time.
      */
     public void reset() {
         programCache.clear();
         modelCache.clear();
+        rawModelCache.clear();
+        snapshotsValidSince = System.nanoTime();
+    }
+
+    /**
+     * Reset the cached information related to the programs that
+     * match the given predicate.
+     *
+     * @param affected the predicate that selects the programs
+     */
+    public void reset(Predicate<Program> affected) {
+        programCache.removeIf(affected);
+        modelCache.removeIf(revision -> affected.test(revision.program));
+        rawModelCache.clear(affected);
+        snapshotCache.values().removeIf(metadata -> affected.test(
+            metadata.revision.unbound().program));
     }
 
     @Override
@@ -230,7 +334,7 @@ public class CompositeMavenRepository implements Closeable {
         "PMD.AvoidDuplicateLiterals" })
     public Promise<File> retrieve(Archive archive) throws IOException {
         try {
-            return bndMavenRepo.get(archive);
+            return bndMavenRepo.get(resolved(archive));
         } catch (Exception e) {
             if (e instanceof InvocationTargetException
                 && ((InvocationTargetException) e)
@@ -272,7 +376,7 @@ public class CompositeMavenRepository implements Closeable {
         "PMD.AvoidDuplicateLiterals" })
     public File get(Archive archive) throws IOException {
         try {
-            return bndMavenRepo.get(archive).getValue();
+            return bndMavenRepo.get(resolved(archive)).getValue();
         } catch (Exception e) {
             if (e instanceof InvocationTargetException
                 && ((InvocationTargetException) e)
@@ -403,6 +507,7 @@ public class CompositeMavenRepository implements Closeable {
                 revision.artifact, revision.version.toString());
             request.setModelResolver(modelResolver)
                 .setModelSource(modelSource)
+                .setModelCache(rawModelCache)
                 .setValidationLevel(
                     ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL)
                 .setTwoPhaseBuilding(false);
@@ -419,6 +524,10 @@ public class CompositeMavenRepository implements Closeable {
      * to the given version. While this can be done with straight forward
      * name mapping for releases, snapshots have a timestamp that has to
      * be looked up in the backing repository.
+     * <P>
+     * The metadata looked up for a snapshot revision is cached (see
+     * {@link #setSnapshotTtl(Duration)}), so resolving all archives
+     * of a snapshot revision requires a single lookup only.
      *
      * @param revision the revision
      * @param extension the extension
@@ -426,22 +535,60 @@ public class CompositeMavenRepository implements Closeable {
      * @return the resolved archive
      * @throws IOException Signals that an I/O exception has occurred.
      */
-    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
-        "PMD.AvoidThrowingRawExceptionTypes", "PMD.AvoidRethrowingException" })
     public BoundArchive resolve(BoundRevision revision,
             String extension, String classifier) throws IOException {
         if (!revision.isSnapshot()) {
             return revision.archive(extension, classifier);
         }
-        try {
-            MavenVersion version = MavenVersion.from(revision
-                .mavenBackingRepository().getVersion(revision.unbound()));
-            return revision.archive(version, extension, classifier);
-        } catch (IOException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        return revision.archive(snapshotMetadata(revision).version,
+            extension, classifier);
+    }
+
+    /**
+     * Resolves the archive if it is an unresolved snapshot archive
+     * with a known backing repository. This makes sure that
+     * all archives of a snapshot revision are resolved using the
+     * cached snapshot metadata.
+     *
+     * @param archive the archive
+     * @return the archive to use
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private Archive resolved(Archive archive) throws IOException {
+        if (archive instanceof BoundArchive && archive.isSnapshot()
+            && archive.snapshot == null) {
+            BoundArchive resolved = resolve(((BoundArchive) archive).revision(),
+                archive.extension, archive.classifier);
+            if (resolved.snapshot != null) {
+                return resolved;
+            }
         }
+        return archive;
+    }
+
+    /**
+     * Makes sure that the metadata of all snapshot revisions of the
+     * given program is up-to-date. Stale metadata is revalidated
+     * with the backing repositories in parallel. Problems are
+     * reported and don't cause the returned future to complete
+     * exceptionally.
+     *
+     * @param program the program
+     * @return the future that is completed when all metadata
+     * has been revalidated
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public CompletableFuture<Void> refreshSnapshots(Program program) {
+        return CompletableFuture.allOf(findRevisions(program)
+            .filter(BoundRevision::isSnapshot)
+            .map(revision -> CompletableFuture.runAsync(() -> {
+                try {
+                    snapshotMetadata(revision);
+                } catch (IOException e) {
+                    reporter.exception(e, "Problem accessing %s: %s",
+                        revision, e.getMessage());
+                }
+            }, executor)).toArray(CompletableFuture[]::new));
     }
 
     /**
@@ -451,24 +598,92 @@ public class CompositeMavenRepository implements Closeable {
      */
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     protected void refreshSnapshot(BoundArchive archive) {
-        File metaFile = bndMavenRepo.toLocalFile(
-            archive.getRevision()
-                .metadata(archive.mavenBackingRepository().getId()));
-        RevisionMetadata metaData;
+        long lastUpdated;
         try {
-            metaData = MetadataParser.parseRevisionMetadata(metaFile);
-        } catch (Exception e) {
+            lastUpdated = snapshotMetadata(archive.revision()).lastUpdated;
+        } catch (IOException e) {
             reporter.exception(e, "Problem accessing %s.", archive);
             return;
         }
         File archiveFile = bndMavenRepo.toLocalFile(archive);
-        if (archiveFile.lastModified() < metaData.lastUpdated) {
+        if (archiveFile.lastModified() < lastUpdated) {
             archiveFile.delete();
         }
         File pomFile = bndMavenRepo.toLocalFile(archive.getPomArchive());
-        if (pomFile.lastModified() < metaData.lastUpdated) {
+        if (pomFile.lastModified() < lastUpdated) {
             pomFile.delete();
         }
     }
 
+    private SnapshotMetadata snapshotMetadata(BoundRevision revision)
+            throws IOException {
+        return snapshotCache.computeIfAbsent(
+            revision.metadata(revision.mavenBackingRepository().getId()),
+            key -> new SnapshotMetadata(revision)).validate();
+    }
+
+    /**
+     * The information obtained from the metadata of a snapshot
+     * revision. The information is shared by all archives of
+     * the revision.
+     */
+    private class SnapshotMetadata {
+        private final BoundRevision revision;
+        private boolean valid;
+        private long validated;
+        private long metadataModified;
+        private MavenVersion version;
+        private long lastUpdated;
+
+        /**
+         * Instantiates new (not yet valid) snapshot metadata.
+         *
+         * @param revision the revision
+         */
+        public SnapshotMetadata(BoundRevision revision) {
+            this.revision = revision;
+        }
+
+        /**
+         * Returns this metadata after making sure that it is
+         * up-to-date. The backing repository's fetch is conditional,
+         * so revalidation transfers the metadata only if it
+         * has changed. The local copy of the metadata file is only
+         * parsed again if it has been modified.
+         *
+         * @return the snapshot metadata
+         * @throws IOException Signals that an I/O exception has occurred.
+         */
+        @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
+            "PMD.AvoidThrowingRawExceptionTypes",
+            "PMD.AvoidRethrowingException" })
+        public synchronized SnapshotMetadata validate() throws IOException {
+            long now = System.nanoTime();
+            if (valid && validated - snapshotsValidSince >= 0
+                && now - validated < snapshotTtl) {
+                return this;
+            }
+            try {
+                version = MavenVersion.from(revision
+                    .mavenBackingRepository().getVersion(revision.unbound()));
+                File metaFile = bndMavenRepo.toLocalFile(revision
+                    .metadata(revision.mavenBackingRepository().getId()));
+                long modified = metaFile.lastModified();
+                if (!valid || modified != metadataModified) {
+                    lastUpdated = modified == 0 ? 0
+                        : MetadataParser.parseRevisionMetadata(metaFile)
+                            .lastUpdated;
+                    metadataModified = modified;
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            validated = now;
+            valid = true;
+            return this;
+        }
+    }
+
 }
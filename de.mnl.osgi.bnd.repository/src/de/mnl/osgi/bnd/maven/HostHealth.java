@@ -0,0 +1,152 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the health of a host, shared by all repositories in the JVM
+ * (a circuit breaker). After {@link HttpSettings#failureThreshold()}
+ * consecutive failures, the host is considered unavailable for
+ * {@link HttpSettings#unavailableDelay()}. Requests are then rejected
+ * immediately. When the delay has passed, a single request is let
+ * through. If it succeeds, the host is considered available again,
+ * else it remains unavailable for another delay.
+ */
+public final class HostHealth {
+
+    private static final Map<String, HostHealth> HOSTS
+        = new ConcurrentHashMap<>();
+
+    private final String host;
+    private int failures;
+    private long unavailableUntil;
+    private boolean probing;
+
+    private HostHealth(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Returns the health of the host addressed by the given URI.
+     *
+     * @param uri the uri
+     * @return the host health
+     */
+    public static HostHealth of(URI uri) {
+        String key = uri.getScheme() + "://" + uri.getHost()
+            + (uri.getPort() < 0 ? "" : ":" + uri.getPort());
+        return HOSTS.computeIfAbsent(key, HostHealth::new);
+    }
+
+    /**
+     * Forgets about the health of all hosts.
+     */
+    public static void resetAll() {
+        HOSTS.clear();
+    }
+
+    /**
+     * Returns the host.
+     *
+     * @return the host
+     */
+    public String host() {
+        return host;
+    }
+
+    /**
+     * Checks if a request may be sent to the host. If the host is
+     * unavailable and the delay has passed, this returns {@code true}
+     * once, allowing a request to probe the host.
+     *
+     * @return true, if successful
+     */
+    public synchronized boolean allowRequest() {
+        if (unavailableUntil == 0) {
+            return true;
+        }
+        if (probing || System.currentTimeMillis() < unavailableUntil) {
+            return false;
+        }
+        probing = true;
+        return true;
+    }
+
+    /**
+     * Checks if the host is currently considered unavailable.
+     *
+     * @return true, if unavailable
+     */
+    public synchronized boolean isUnavailable() {
+        return unavailableUntil != 0;
+    }
+
+    /**
+     * Records a successful request (the host responded).
+     */
+    public synchronized void succeeded() {
+        failures = 0;
+        unavailableUntil = 0;
+        probing = false;
+    }
+
+    /**
+     * Records a request that ended without an outcome that can be
+     * attributed to the host (e.g. because it was interrupted). If
+     * the request was the probe of an unavailable host, another
+     * probe is allowed.
+     */
+    public synchronized void aborted() {
+        probing = false;
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @param settings the settings
+     */
+    public synchronized void failed(HttpSettings settings) {
+        failures += 1;
+        if (probing || failures >= settings.failureThreshold()) {
+            unavailableUntil = System.currentTimeMillis()
+                + settings.unavailableDelay().toMillis();
+            probing = false;
+        }
+    }
+
+    /**
+     * Thrown if a request is rejected because the host is unavailable.
+     */
+    @SuppressWarnings("serial")
+    public static class UnavailableException extends IOException {
+
+        /**
+         * Instantiates a new exception.
+         *
+         * @param uri the requested uri
+         */
+        public UnavailableException(URI uri) {
+            super("Host of " + uri + " is currently unavailable.");
+        }
+    }
+}
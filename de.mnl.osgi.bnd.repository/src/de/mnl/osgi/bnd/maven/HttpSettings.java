@@ -0,0 +1,224 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import java.time.Duration;
+
+/**
+ * The settings for the HTTP requests of a repository, see
+ * {@link HttpTransport}. The setters return the settings, thus
+ * allowing a fluent usage.
+ */
+@SuppressWarnings("PMD.DataClass")
+public class HttpSettings {
+
+    /** The default timeout for establishing a connection. */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT
+        = Duration.ofSeconds(10);
+    /** The default timeout for a request. */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT
+        = Duration.ofSeconds(60);
+    /** The default number of retries of a failed request. */
+    public static final int DEFAULT_RETRIES = 3;
+    /** The default delay before the first retry. */
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+    /** The default maximum number of concurrent requests. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 16;
+    /** The default number of failures that make a host unavailable. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** The default time that a host is considered unavailable. */
+    public static final Duration DEFAULT_UNAVAILABLE_DELAY
+        = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+    private int retries = DEFAULT_RETRIES;
+    private Duration retryDelay = DEFAULT_RETRY_DELAY;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private Duration unavailableDelay = DEFAULT_UNAVAILABLE_DELAY;
+    private boolean http2;
+
+    /**
+     * Returns the timeout for establishing a connection.
+     *
+     * @return the timeout
+     */
+    public Duration connectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Sets the timeout for establishing a connection.
+     *
+     * @param timeout the timeout
+     * @return the settings
+     */
+    public HttpSettings setConnectTimeout(Duration timeout) {
+        connectTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * Returns the timeout for a request.
+     *
+     * @return the timeout
+     */
+    public Duration requestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Sets the timeout for a request.
+     *
+     * @param timeout the timeout
+     * @return the settings
+     */
+    public HttpSettings setRequestTimeout(Duration timeout) {
+        requestTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * Returns the number of retries of a failed request.
+     *
+     * @return the retries
+     */
+    public int retries() {
+        return retries;
+    }
+
+    /**
+     * Sets the number of retries of a failed request.
+     *
+     * @param retries the retries
+     * @return the settings
+     */
+    public HttpSettings setRetries(int retries) {
+        this.retries = retries;
+        return this;
+    }
+
+    /**
+     * Returns the delay before the first retry. The delay is
+     * doubled with each further retry and randomized (see 
+     * {@link RepositoryUtils#retrying}).
+     *
+     * @return the delay
+     */
+    public Duration retryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Sets the delay before the first retry.
+     *
+     * @param delay the delay
+     * @return the settings
+     */
+    public HttpSettings setRetryDelay(Duration delay) {
+        retryDelay = delay;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of concurrent requests.
+     *
+     * @return the maximum number of connections
+     */
+    public int maxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Sets the maximum number of concurrent requests.
+     *
+     * @param maxConnections the maximum number of connections
+     * @return the settings
+     */
+    public HttpSettings setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * Returns the number of consecutive failures after which
+     * a host is considered unavailable (see {@link HostHealth}).
+     *
+     * @return the threshold
+     */
+    public int failureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Sets the number of consecutive failures after which
+     * a host is considered unavailable.
+     *
+     * @param threshold the threshold
+     * @return the settings
+     */
+    public HttpSettings setFailureThreshold(int threshold) {
+        failureThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Returns the time that a host is considered unavailable
+     * before the next request is sent to it.
+     *
+     * @return the delay
+     */
+    public Duration unavailableDelay() {
+        return unavailableDelay;
+    }
+
+    /**
+     * Sets the time that a host is considered unavailable.
+     *
+     * @param delay the delay
+     * @return the settings
+     */
+    public HttpSettings setUnavailableDelay(Duration delay) {
+        unavailableDelay = delay;
+        return this;
+    }
+
+    /**
+     * Checks if the HTTP/2 capable transport is to be used.
+     *
+     * @return true, if HTTP/2 is to be used
+     */
+    public boolean http2() {
+        return http2;
+    }
+
+    /**
+     * Selects the HTTP/2 capable transport. Requests to the same
+     * host are then multiplexed over a single connection if the
+     * server supports it.
+     *
+     * @param http2 the new http 2
+     * @return the settings
+     */
+    public HttpSettings setHttp2(boolean http2) {
+        this.http2 = http2;
+        return this;
+    }
+}
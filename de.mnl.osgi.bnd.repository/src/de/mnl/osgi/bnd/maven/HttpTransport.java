@@ -0,0 +1,345 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import aQute.bnd.http.HttpClient;
+import aQute.bnd.http.HttpRequestException;
+import aQute.bnd.osgi.Processor;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Fetches the information used for building an index, i.e. 
+ * metadata, directory listings and search results. By default,
+ * the requests are made with bnd's {@link HttpClient}, configured
+ * with the timeouts from the {@link HttpSettings}.
+ * <P>
+ * If {@link HttpSettings#http2()} is set, the requests are made with
+ * a {@link java.net.http.HttpClient} instead. It uses HTTP/2 if
+ * supported by the server, which multiplexes the many small requests
+ * to the same host over a single connection.
+ * <P>
+ * With both clients, the number of concurrent requests is limited
+ * by {@link HttpSettings#maxConnections()} and failed requests are
+ * retried as described in {@link RepositoryUtils#retrying}. Requests
+ * to hosts that are considered unavailable (see {@link HostHealth})
+ * fail immediately.
+ */
+public class HttpTransport {
+
+    private static final String USER_AGENT = "Bnd";
+
+    private final HttpClient bndClient;
+    private final HttpSettings settings;
+    private final java.net.http.HttpClient client;
+    private final Permits permits;
+
+    /**
+     * Creates a new transport.
+     *
+     * @param bndClient bnd's client
+     * @param settings the settings
+     */
+    public HttpTransport(HttpClient bndClient, HttpSettings settings) {
+        this.bndClient = bndClient;
+        this.settings = settings;
+        permits = new Permits(Math.max(1, settings.maxConnections()));
+        if (settings.http2()) {
+            client = java.net.http.HttpClient.newBuilder()
+                .version(Version.HTTP_2).followRedirects(Redirect.NORMAL)
+                .connectTimeout(settings.connectTimeout()).build();
+        } else {
+            client = null;
+        }
+    }
+
+    /**
+     * Returns the settings.
+     *
+     * @return the settings
+     */
+    public HttpSettings settings() {
+        return settings;
+    }
+
+    /**
+     * Gets the resource with the given URI as string.
+     *
+     * @param uri the uri
+     * @return the content or {@code null} if the resource does not exist
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public String getString(URI uri) throws IOException {
+        return await(getStringAsync(uri));
+    }
+
+    /**
+     * Gets the resource with the given URI as stream.
+     *
+     * @param uri the uri
+     * @return the stream or {@code null} if the resource does not exist
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public InputStream get(URI uri) throws IOException {
+        return await(getAsync(uri));
+    }
+
+    /**
+     * Gets the resource with the given URI as string. Failed requests 
+     * are retried as described in {@link RepositoryUtils#retrying}.
+     *
+     * @param uri the uri
+     * @return the content or {@code null} if the resource does not exist
+     */
+    public CompletableFuture<String> getStringAsync(URI uri) {
+        if (client == null) {
+            return bndGet(String.class, uri);
+        }
+        return send(uri, BodyHandlers.ofString());
+    }
+
+    /**
+     * Gets the resource with the given URI as stream. Failed requests 
+     * are retried as described in {@link RepositoryUtils#retrying}.
+     *
+     * @param uri the uri
+     * @return the stream or {@code null} if the resource does not exist
+     */
+    public CompletableFuture<InputStream> getAsync(URI uri) {
+        if (client == null) {
+            return bndGet(InputStream.class, uri);
+        }
+        return send(uri, BodyHandlers.ofInputStream());
+    }
+
+    private static <T> T await(CompletableFuture<T> result)
+            throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Checks if the failure may be resolved by retrying the request,
+     * i.e. if it is caused by a problem with the connection or 
+     * indicates an overloaded or temporarily unavailable server.
+     *
+     * @param failure the failure
+     * @return true, if retryable
+     */
+    public static boolean isRetryable(Throwable failure) {
+        if (failure instanceof StatusException) {
+            return isRetryable(((StatusException) failure).status());
+        }
+        if (failure instanceof HttpRequestException) {
+            return isRetryable(((HttpRequestException) failure).responseCode);
+        }
+        if (isTimeout(failure)) {
+            // A SocketTimeoutException is an InterruptedIOException
+            return true;
+        }
+        if (failure.getCause() instanceof IOException
+            && !(failure instanceof IOException)) {
+            // bnd's client may wrap the original exception
+            return isRetryable(failure.getCause());
+        }
+        return failure instanceof IOException
+            && !(failure instanceof InterruptedIOException)
+            && !(failure instanceof HostHealth.UnavailableException);
+    }
+
+    private static boolean isTimeout(Throwable failure) {
+        return failure instanceof SocketTimeoutException
+            || failure instanceof HttpTimeoutException;
+    }
+
+    /**
+     * Checks if the failure reports a response from the server, i.e.
+     * an HTTP status.
+     *
+     * @param failure the failure
+     * @return true, if the server has responded
+     */
+    public static boolean isResponse(Throwable failure) {
+        return failure instanceof StatusException
+            || failure instanceof HttpRequestException;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status >= 500 || status == 429;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private <T> CompletableFuture<T> bndGet(Class<T> type, URI uri) {
+        // bnd's client is synchronous, run the request on bnd's executor
+        // once a permit has been obtained and leave the retries to
+        // RepositoryUtils.
+        return RepositoryUtils.retrying(uri, () -> permits.acquire()
+            .thenComposeAsync(none -> {
+                CompletableFuture<T> result = new CompletableFuture<>();
+                try {
+                    result.complete(bndClient.build()
+                        .headers("User-Agent", USER_AGENT)
+                        .timeout(settings.requestTimeout().toMillis())
+                        .retries(0).get(type).go(uri));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+                return result;
+            }, Processor.getExecutor())
+            .whenComplete((response, thrown) -> permits.release()),
+            HttpTransport::isRetryable, HttpTransport::isResponse, settings);
+    }
+
+    private <T> CompletableFuture<T> send(URI uri, BodyHandler<T> handler) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("User-Agent", USER_AGENT)
+            .timeout(settings.requestTimeout()).GET().build();
+        return RepositoryUtils.retrying(uri,
+            () -> permits.acquire()
+                .thenCompose(none -> client.sendAsync(request, handler))
+                .whenComplete((response, thrown) -> permits.release())
+                .thenApply(response -> checked(uri, response)),
+            HttpTransport::isRetryable, HttpTransport::isResponse, settings);
+    }
+
+    private <T> T checked(URI uri, HttpResponse<T> response) {
+        int status = response.statusCode();
+        if (status < 300) {
+            return response.body();
+        }
+        try {
+            discard(response.body());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        if (status == 404 || status == 410) {
+            return null;
+        }
+        throw new CompletionException(new StatusException(uri, status));
+    }
+
+    private void discard(Object body) throws IOException {
+        if (body instanceof Closeable) {
+            ((Closeable) body).close();
+        }
+    }
+
+    /**
+     * Limits the number of concurrent requests. Other than a 
+     * {@link java.util.concurrent.Semaphore}, the permits are
+     * obtained without blocking a thread.
+     */
+    private static class Permits {
+        private final Queue<CompletableFuture<Void>> waiting
+            = new ArrayDeque<>();
+        private int available;
+
+        private Permits(int permits) {
+            available = permits;
+        }
+
+        /**
+         * Returns a future that completes when a permit is granted.
+         */
+        private synchronized CompletableFuture<Void> acquire() {
+            if (available > 0) {
+                available -= 1;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> granted = new CompletableFuture<>();
+            waiting.add(granted);
+            return granted;
+        }
+
+        /**
+         * Releases a permit, passing it on to the next waiting request
+         * if there is one.
+         */
+        private void release() {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    available += 1;
+                    return;
+                }
+            }
+            next.complete(null);
+        }
+    }
+
+    /**
+     * Reports a response with an unexpected status.
+     */
+    @SuppressWarnings("serial")
+    public static class StatusException extends IOException {
+
+        private final int status;
+
+        /**
+         * Instantiates a new status exception.
+         *
+         * @param uri the requested uri
+         * @param status the status
+         */
+        public StatusException(URI uri, int status) {
+            super("Request for " + uri + " failed with status " + status
+                + ".");
+            this.status = status;
+        }
+
+        /**
+         * Returns the status.
+         *
+         * @return the status
+         */
+        public int status() {
+            return status;
+        }
+    }
+}
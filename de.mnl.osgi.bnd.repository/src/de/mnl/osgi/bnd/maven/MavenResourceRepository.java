@@ -38,9 +38,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
@@ -57,14 +57,29 @@ import org.osgi.resource.Resource;
 @SuppressWarnings("PMD.UseLocaleWithCaseConversions")
 public class MavenResourceRepository extends CompositeMavenRepository {
 
-    /** The namespace used to store the maven dependencies information. */
+    /**
+     * The namespace used to store the maven dependencies information.
+     * The capability has an attribute for each scope. Its value is
+     * the list of the dependencies' coordinates, separated by 
+     * semicolons. The coordinates have the form
+     * "groupId:artifactId[:type[:classifier]]:version", type and
+     * classifier are omitted if they have their default values
+     * ("jar" and none).
+     */
     public static final String MAVEN_DEPENDENCIES_NS
         = "maven.dependencies.info";
 
+    /** The default maximum number of cached resources. */
+    public static final long DEFAULT_RESOURCE_CACHE_SIZE = 20_000;
+    /** The maximum number of cached dependency lists. */
+    private static final long DEPENDENCIES_CACHE_SIZE = 10_000;
+
     private Function<Archive, Optional<Resource>> resourceSupplier
         = resource -> Optional.empty();
-    private final Map<Archive, MavenResource> resourceCache
-        = new ConcurrentHashMap<>();
+    private final BoundedCache<Archive, MavenResource> resourceCache
+        = new BoundedCache<>("resources", DEFAULT_RESOURCE_CACHE_SIZE);
+    private final BoundedCache<String, List<Dependency>> parsedDependencies
+        = new BoundedCache<>("dependencies", DEPENDENCIES_CACHE_SIZE);
 
     /**
      * Instantiates a new maven resource repository.
@@ -89,6 +104,34 @@ public class MavenResourceRepository extends CompositeMavenRepository {
     public void reset() {
         super.reset();
         resourceCache.clear();
+        parsedDependencies.clear();
+    }
+
+    @Override
+    public void reset(Predicate<Program> affected) {
+        super.reset(affected);
+        resourceCache
+            .removeIf(archive -> affected.test(archive.revision.program));
+    }
+
+    /**
+     * Sets the maximum number of cached resources. The least
+     * recently used resources are evicted when the limit is exceeded.
+     *
+     * @param resources the maximum number of resources
+     * @return the maven resource repository
+     */
+    public MavenResourceRepository setResourceCacheLimit(long resources) {
+        resourceCache.setMaxWeight(resources);
+        return this;
+    }
+
+    @Override
+    public List<BoundedCache.Stats> cacheStats() {
+        List<BoundedCache.Stats> result = super.cacheStats();
+        result.add(resourceCache.stats());
+        result.add(parsedDependencies.stats());
+        return result;
     }
 
     /**
@@ -147,28 +190,80 @@ public class MavenResourceRepository extends CompositeMavenRepository {
      * resource. Assumes that the resource was created by this
      * repository, i.e. with capabilities in the
      * "maven.dependencies.info" name space.
+     * <P>
+     * Many resources (usually the versions of an artifact) have 
+     * the same dependencies. The dependencies parsed from an
+     * attribute value are therefore cached (with a bounded number
+     * of entries). The {@link Dependency} instances obtained
+     * from the cache are shared and must not be modified.
      *
      * @param resource the resource
      * @param dependencies the dependencies
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    private static void retrieveDependencies(Resource resource,
+    private void retrieveDependencies(Resource resource,
             Collection<Dependency> dependencies) {
         // Actually, there should be only one such capability per resource.
         for (Capability capability : resource
             .getCapabilities(MAVEN_DEPENDENCIES_NS)) {
-            Map<String, Object> depAttrs = capability.getAttributes();
-            depAttrs.values().stream()
-                .flatMap(val -> COORDS_SPLITTER.splitAsStream((String) val))
-                .map(rev -> {
-                    String[] parts = rev.split(":");
-                    Dependency dep = new Dependency();
-                    dep.setGroupId(parts[0]);
-                    dep.setArtifactId(parts[1]);
-                    dep.setVersion(parts[2]);
-                    return dep;
-                }).forEach(dependencies::add);
+            for (Map.Entry<String, Object> attr : capability.getAttributes()
+                .entrySet()) {
+                String scope = attr.getKey();
+                String coordsList = (String) attr.getValue();
+                dependencies.addAll(parsedDependencies.computeIfAbsent(
+                    scope + "=" + coordsList,
+                    key -> COORDS_SPLITTER.splitAsStream(coordsList)
+                        .map(coords -> toDependency(scope, coords))
+                        .collect(Collectors.toList())));
+            }
+        }
+    }
+
+    /**
+     * Returns the coordinates of the dependency, using the format
+     * described for {@link #MAVEN_DEPENDENCIES_NS}.
+     *
+     * @param dependency the dependency
+     * @return the coordinates
+     */
+    /* default */ static String toCoordinates(Dependency dependency) {
+        StringBuilder coords = new StringBuilder(dependency.getGroupId())
+            .append(':').append(dependency.getArtifactId());
+        String classifier = Optional.ofNullable(dependency.getClassifier())
+            .orElse("");
+        if (!classifier.isEmpty()
+            || !Archive.JAR_EXTENSION.equals(dependency.getType())) {
+            coords.append(':').append(dependency.getType());
+            if (!classifier.isEmpty()) {
+                coords.append(':').append(classifier);
+            }
+        }
+        return coords.append(':').append(dependency.getVersion()).toString();
+    }
+
+    /**
+     * Creates a dependency from coordinates in the format described
+     * for {@link #MAVEN_DEPENDENCIES_NS}.
+     *
+     * @param scope the scope
+     * @param coords the coordinates
+     * @return the dependency
+     */
+    @SuppressWarnings("PMD.AvoidLiteralsInIfCondition")
+    /* default */ static Dependency toDependency(String scope,
+            String coords) {
+        String[] parts = coords.split(":");
+        Dependency dep = new Dependency();
+        dep.setGroupId(parts[0]);
+        dep.setArtifactId(parts[1]);
+        if (parts.length > 3) {
+            dep.setType(parts[2]);
+        }
+        if (parts.length > 4) {
+            dep.setClassifier(parts[3]);
         }
+        dep.setVersion(parts[parts.length - 1]);
+        dep.setScope(scope);
+        return dep;
     }
 
     /**
@@ -345,9 +440,7 @@ public class MavenResourceRepository extends CompositeMavenRepository {
 
         private String toVersionList(Collection<Dependency> deps) {
             // Sort dependencies to get reproducible results.
-            return deps.stream()
-                .map(d -> d.getGroupId() + ":" + d.getArtifactId()
-                    + ":" + d.getVersion())
+            return deps.stream().map(MavenResourceRepository::toCoordinates)
                 .sorted().collect(Collectors.joining(";"));
         }
 
@@ -0,0 +1,168 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import aQute.bnd.http.HttpClient;
+import aQute.maven.api.Archive;
+import aQute.maven.provider.MavenBackingRepository;
+import aQute.maven.provider.MavenRepository;
+import aQute.service.reporter.Reporter;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import org.osgi.util.promise.Deferred;
+import org.osgi.util.promise.Promise;
+
+/**
+ * A {@link MavenRepository} that shares its resources with all other
+ * instances in the JVM. When a workspace has several repository 
+ * plugins that use the same remote repositories and the same local 
+ * repository, the backing repositories (with their cached metadata) 
+ * are created only once and an archive that is requested by several 
+ * plugins with the same backing repositories concurrently is 
+ * downloaded only once.
+ */
+public class PooledMavenRepository extends MavenRepository {
+
+    /** The backing repositories by client and key (URL, local repo). */
+    @SuppressWarnings("PMD.LooseCoupling")
+    private static final Map<HttpClient,
+            Map<String, List<MavenBackingRepository>>> BACKERS
+                = new IdentityHashMap<>();
+    /** The pending downloads by local file and backing repositories. */
+    private static final Map<List<Object>, Promise<File>> DOWNLOADS
+        = new ConcurrentHashMap<>();
+
+    private final Set<MavenBackingRepository> backers;
+
+    /**
+     * Instantiates a new pooled maven repository.
+     *
+     * @param base the local repository
+     * @param repoId the repository id
+     * @param releaseRepos the backing release repositories
+     * @param snapshotRepos the backing snapshot repositories
+     * @param executor an executor
+     * @param reporter the reporter
+     * @throws Exception the exception
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public PooledMavenRepository(File base, String repoId,
+            List<MavenBackingRepository> releaseRepos,
+            List<MavenBackingRepository> snapshotRepos, Executor executor,
+            Reporter reporter) throws Exception {
+        super(base, repoId, releaseRepos, snapshotRepos, executor, reporter);
+        Set<MavenBackingRepository> repos = new HashSet<>(releaseRepos);
+        repos.addAll(snapshotRepos);
+        backers = Collections.unmodifiableSet(repos);
+    }
+
+    /**
+     * Returns the backing repositories for the given URL, local
+     * repository and client. The backing repositories are created
+     * when requested for the first time and reused afterwards. Note
+     * that the reporter passed with the first request is used by all
+     * users of the backing repositories. The backing repositories
+     * are kept until {@link #release(HttpClient)} is called for
+     * the client.
+     *
+     * @param url the url of the remote repository
+     * @param reporter the reporter
+     * @param localRepo the local repository
+     * @param client the client
+     * @return the backing repositories
+     * @throws Exception the exception
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public static List<MavenBackingRepository> backingRepositories(
+            String url, Reporter reporter, File localRepo,
+            HttpClient client) throws Exception {
+        String key = url.trim().replaceFirst("/+$", "") + "|"
+            + localRepo.getAbsolutePath();
+        synchronized (BACKERS) {
+            List<MavenBackingRepository> known = BACKERS
+                .getOrDefault(client, Collections.emptyMap()).get(key);
+            if (known != null) {
+                return known;
+            }
+        }
+        List<MavenBackingRepository> backers = List.copyOf(
+            MavenBackingRepository.create(url, reporter, localRepo, client));
+        synchronized (BACKERS) {
+            List<MavenBackingRepository> known = BACKERS
+                .computeIfAbsent(client, clnt -> new HashMap<>())
+                .putIfAbsent(key, backers);
+            return known == null ? backers : known;
+        }
+    }
+
+    /**
+     * Forgets about the shared backing repositories that use the given
+     * client. Must be called when the client is no longer used, e.g.
+     * because the workspace has been closed. Repositories that use
+     * the backing repositories are not affected.
+     *
+     * @param client the client
+     */
+    public static void release(HttpClient client) {
+        synchronized (BACKERS) {
+            BACKERS.remove(client);
+        }
+    }
+
+    /**
+     * Gets the archive. If the archive is already being retrieved
+     * by any instance that uses the same local repository and the
+     * same backing repositories, the promise of the pending retrieval
+     * is returned. Instances with other backing repositories may
+     * have a different result and don't share the retrieval.
+     *
+     * @param archive the archive
+     * @return the promise
+     * @throws Exception the exception
+     */
+    @Override
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public Promise<File> get(Archive archive) throws Exception {
+        List<Object> key
+            = List.of(toLocalFile(archive).getAbsoluteFile(), backers);
+        Deferred<File> deferred = new Deferred<>();
+        Promise<File> pending = deferred.getPromise();
+        Promise<File> known = DOWNLOADS.putIfAbsent(key, pending);
+        if (known != null) {
+            return known;
+        }
+        pending.onResolve(() -> DOWNLOADS.remove(key, pending));
+        try {
+            deferred.resolveWith(super.get(archive));
+        } catch (Exception e) {
+            // Fail waiting callers and remove the entry.
+            deferred.fail(e);
+            throw e;
+        }
+        return pending;
+    }
+}
@@ -19,7 +19,15 @@
 package de.mnl.osgi.bnd.maven;
 
 import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -227,4 +235,119 @@ public final class RepositoryUtils {
             throw new UndeclaredThrowableException(e);
         }
     }
+
+    /**
+     * Invokes the given (asynchronous) attempt to obtain a resource from 
+     * the given URI until it succeeds, fails with an error that is not 
+     * retryable or the number of retries from the settings is exhausted.
+     * <P>
+     * Retries are scheduled without blocking a thread. The delay before
+     * the n-th retry is {@link HttpSettings#retryDelay()} * 2^(n-1), 
+     * randomized to between half and the full value, thus spreading 
+     * the retries of concurrent requests.
+     * <P>
+     * The outcome of every attempt is reported to the {@link HostHealth}
+     * of the URI's host. A result or a failure that indicates a response
+     * from the host counts as success, a retryable failure counts as
+     * failure. Other failures (e.g. an interruption) are not attributed
+     * to the host. No attempt is made while the host is considered
+     * unavailable, the returned future fails with a 
+     * {@link HostHealth.UnavailableException} instead.
+     *
+     * @param <T> the result type
+     * @param uri the uri
+     * @param attempt the attempt
+     * @param retryable checks if a failure may be retried
+     * @param responded checks if a failure reports a response from
+     * the host
+     * @param settings the settings
+     * @return the result
+     */
+    public static <T> CompletableFuture<T> retrying(URI uri,
+            Supplier<CompletableFuture<T>> attempt,
+            Predicate<Throwable> retryable, Predicate<Throwable> responded,
+            HttpSettings settings) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        new Retrying<>(uri, attempt, retryable, responded, settings, result)
+            .attempt(1);
+        return result;
+    }
+
+    /**
+     * The state of a request that is retried.
+     */
+    private static class Retrying<T> {
+        private final URI uri;
+        private final Supplier<CompletableFuture<T>> attempt;
+        private final Predicate<Throwable> retryable;
+        private final Predicate<Throwable> responded;
+        private final HttpSettings settings;
+        private final CompletableFuture<T> result;
+
+        @SuppressWarnings("PMD.ExcessiveParameterList")
+        private Retrying(URI uri, Supplier<CompletableFuture<T>> attempt,
+                Predicate<Throwable> retryable, Predicate<Throwable> responded,
+                HttpSettings settings, CompletableFuture<T> result) {
+            this.uri = uri;
+            this.attempt = attempt;
+            this.retryable = retryable;
+            this.responded = responded;
+            this.settings = settings;
+            this.result = result;
+        }
+
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        private void attempt(int number) {
+            HostHealth health = HostHealth.of(uri);
+            if (!health.allowRequest()) {
+                result.completeExceptionally(
+                    new HostHealth.UnavailableException(uri));
+                return;
+            }
+            CompletableFuture<T> attempted;
+            try {
+                attempted = attempt.get();
+            } catch (RuntimeException e) {
+                attempted = CompletableFuture.failedFuture(e);
+            }
+            attempted.whenComplete((value, thrown) -> {
+                if (thrown == null) {
+                    health.succeeded();
+                    result.complete(value);
+                    return;
+                }
+                Throwable cause = thrown instanceof CompletionException
+                    && thrown.getCause() != null ? thrown.getCause() : thrown;
+                if (!retryable.test(cause)) {
+                    if (responded.test(cause)) {
+                        health.succeeded();
+                    } else {
+                        health.aborted();
+                    }
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                health.failed(settings);
+                if (number > settings.retries()) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                CompletableFuture.delayedExecutor(
+                    retryDelay(settings.retryDelay(), number),
+                    TimeUnit.MILLISECONDS).execute(() -> attempt(number + 1));
+            });
+        }
+    }
+
+    /**
+     * Returns the randomized delay in milliseconds before the given retry.
+     *
+     * @param base the delay before the first retry
+     * @param retry the retry (starting with 1)
+     * @return the delay
+     */
+    public static long retryDelay(Duration base, int retry) {
+        long delay = base.toMillis() << Math.min(retry - 1, 16);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import aQute.maven.api.Program;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.apache.maven.model.building.ModelCache;
+
+/**
+ * A {@link ModelCache} that is shared by all model building requests
+ * of a {@link CompositeMavenRepository}. The model builder uses it to
+ * cache the raw models of parent POMs and the dependency management
+ * of imported POMs. As these are usually the same for all modules
+ * of a project, they need to be read and processed only once.
+ * <P>
+ * The model builder copies the data when putting it into the cache
+ * and when getting it from the cache, so sharing the cached data 
+ * between threads is safe.
+ */
+/* default */ final class SharedModelCache implements ModelCache {
+
+    private final Map<Key, Object> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String groupId, String artifactId, String version,
+            String tag, Object data) {
+        cache.put(new Key(groupId, artifactId, version, tag), data);
+    }
+
+    @Override
+    public Object get(String groupId, String artifactId, String version,
+            String tag) {
+        return cache.get(new Key(groupId, artifactId, version, tag));
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Removes the entries of the programs that match the predicate.
+     *
+     * @param affected the predicate
+     */
+    public void clear(Predicate<Program> affected) {
+        cache.keySet().removeIf(key -> affected
+            .test(Program.valueOf(key.groupId, key.artifactId)));
+    }
+
+    /**
+     * The key of an entry.
+     */
+    private static final class Key {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String tag;
+        private final int hash;
+
+        private Key(String groupId, String artifactId, String version,
+                String tag) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.tag = tag;
+            hash = Objects.hash(groupId, artifactId, version, tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && Objects.equals(groupId, other.groupId)
+                && Objects.equals(artifactId, other.artifactId)
+                && Objects.equals(version, other.version)
+                && Objects.equals(tag, other.tag);
+        }
+    }
+}
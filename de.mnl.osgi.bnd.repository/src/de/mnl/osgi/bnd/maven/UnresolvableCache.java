@@ -0,0 +1,213 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.maven;
+
+import aQute.bnd.http.HttpRequestException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers coordinates that could not be resolved, e.g. because
+ * the POM is missing or a parent POM is unavailable. Entries expire
+ * after a configurable time. Until then, lookups of the coordinates
+ * can be answered as "not found" without contacting the backing
+ * repositories again.
+ * <P>
+ * The cache can be persisted to a file. The file starts with a line 
+ * that holds the scope, i.e. a string that describes the backing
+ * repositories. If the scope of the file doesn't match the scope
+ * of the cache, the file's content is ignored. The remaining lines
+ * hold the expiry time (milliseconds since the epoch) and the
+ * coordinates, separated by a tab.
+ */
+public class UnresolvableCache {
+
+    /** The default time that entries are kept. */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    private static final String SCOPE_PREFIX = "scope ";
+
+    private final Path file;
+    private final String scope;
+    private volatile long ttl;
+    private final Map<String, Long> entries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    /**
+     * Creates a new cache that is kept in memory only.
+     */
+    public UnresolvableCache() {
+        this(null, "", DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a new cache that is persisted in the given file. 
+     * Existing entries are loaded from the file.
+     *
+     * @param file the file
+     * @param scope the scope
+     * @param ttl the time that entries are kept
+     */
+    public UnresolvableCache(Path file, String scope, Duration ttl) {
+        this.file = file;
+        this.scope = scope;
+        this.ttl = ttl.toMillis();
+        if (file != null && Files.isReadable(file)) {
+            load();
+        }
+    }
+
+    /**
+     * Sets the time that entries are kept. Applies to entries added
+     * after the call.
+     *
+     * @param ttl the time that entries are kept
+     * @return the unresolvable cache
+     */
+    public UnresolvableCache setTtl(Duration ttl) {
+        this.ttl = ttl.toMillis();
+        return this;
+    }
+
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    private void load() {
+        long now = System.currentTimeMillis();
+        try (BufferedReader reader
+            = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!(SCOPE_PREFIX + scope).equals(reader.readLine())) {
+                modified = true;
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int sep = line.indexOf('\t');
+                if (sep <= 0) {
+                    continue;
+                }
+                try {
+                    long expires = Long.parseLong(line.substring(0, sep));
+                    if (expires > now) {
+                        entries.put(line.substring(sep + 1), expires);
+                    }
+                } catch (NumberFormatException e) {
+                    // Ignore invalid line.
+                }
+            }
+        } catch (IOException e) {
+            // Start with empty cache.
+            modified = true;
+        }
+    }
+
+    /**
+     * Checks if the given coordinates have been found to be unresolvable
+     * and the entry hasn't expired yet.
+     *
+     * @param coordinates the coordinates
+     * @return true, if unresolvable
+     */
+    public boolean isUnresolvable(String coordinates) {
+        Long expires = entries.get(coordinates);
+        if (expires == null) {
+            return false;
+        }
+        if (expires > System.currentTimeMillis()) {
+            return true;
+        }
+        entries.remove(coordinates, expires);
+        modified = true;
+        return false;
+    }
+
+    /**
+     * Records the given coordinates as unresolvable.
+     *
+     * @param coordinates the coordinates
+     */
+    public void add(String coordinates) {
+        entries.put(coordinates, System.currentTimeMillis() + ttl);
+        modified = true;
+    }
+
+    /**
+     * Checks if the failure reports that a file does not exist in
+     * the backing repository. Only such failures justify adding the
+     * coordinates to the cache, other failures (e.g. a server error)
+     * may be temporary.
+     *
+     * @param failure the failure
+     * @return true, if the failure reports a missing file
+     */
+    public static boolean isNotFound(Throwable failure) {
+        if (failure instanceof FileNotFoundException) {
+            return true;
+        }
+        if (failure instanceof HttpRequestException) {
+            int status = ((HttpRequestException) failure).responseCode;
+            return status == 404 || status == 410;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        entries.clear();
+        modified = true;
+    }
+
+    /**
+     * Writes the entries that haven't expired to the file, if the
+     * cache has a file and has been modified since loaded or persisted.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void persist() throws IOException {
+        if (file == null || !modified) {
+            return;
+        }
+        modified = false;
+        long now = System.currentTimeMillis();
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer
+            = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+            writer.write(SCOPE_PREFIX + scope);
+            writer.newLine();
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                if (entry.getValue() <= now) {
+                    continue;
+                }
+                writer.write(Long.toString(entry.getValue()));
+                writer.write('\t');
+                writer.write(entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
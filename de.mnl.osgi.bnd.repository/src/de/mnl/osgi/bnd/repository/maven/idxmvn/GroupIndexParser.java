@@ -0,0 +1,106 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.idxmvn;
+
+import aQute.bnd.osgi.repository.XMLResourceParser;
+import static de.mnl.osgi.bnd.maven.RepositoryUtils.rethrow;
+import static de.mnl.osgi.bnd.maven.RepositoryUtils.unthrow;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.osgi.resource.Resource;
+
+/**
+ * Parses the index file of a group. Large index files are split
+ * into chunks at the resource boundaries and the chunks are parsed
+ * in parallel.
+ * <P>
+ * Splitting relies on the index file having been written by the
+ * {@link aQute.bnd.osgi.repository.XMLResourceGenerator}, i.e.
+ * on the resources being the (only) children of the repository
+ * element. If the file doesn't look as expected, it is parsed
+ * as a whole.
+ */
+/* default */ final class GroupIndexParser {
+
+    /** The minimum number of resources in a chunk. */
+    private static final int MIN_CHUNK_SIZE = 32;
+    private static final Pattern RESOURCE_START
+        = Pattern.compile("<resource[\\s>]");
+    private static final String REPOSITORY_END = "</repository>";
+
+    private GroupIndexParser() {
+    }
+
+    /**
+     * Parses the given index file.
+     *
+     * @param indexPath the index path
+     * @return the resources
+     * @throws Exception if a problem occurs
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public static List<Resource> parse(Path indexPath) throws Exception {
+        URI base = indexPath.toUri();
+        String content = Files.readString(indexPath, StandardCharsets.UTF_8);
+        int end = content.lastIndexOf(REPOSITORY_END);
+        List<Integer> starts = new ArrayList<>();
+        Matcher matcher = RESOURCE_START.matcher(content);
+        while (matcher.find()) {
+            starts.add(matcher.start());
+        }
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(),
+            starts.size() / MIN_CHUNK_SIZE);
+        if (end < 0 || chunks < 2) {
+            return parse(content, base);
+        }
+        String header = content.substring(0, starts.get(0));
+        String footer = content.substring(end);
+        List<String> parts = IntStream.range(0, chunks)
+            .mapToObj(chunk -> header + content.substring(
+                starts.get(starts.size() * chunk / chunks),
+                chunk == chunks - 1 ? end
+                    : starts.get(starts.size() * (chunk + 1) / chunks))
+                + footer)
+            .collect(Collectors.toList());
+        return rethrow(Exception.class, () -> parts.parallelStream()
+            .map(part -> unthrow(() -> parse(part, base)))
+            .flatMap(Collection::stream).collect(Collectors.toList()));
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private static List<Resource> parse(String content, URI base)
+            throws Exception {
+        try (XMLResourceParser parser = new XMLResourceParser(
+            new ByteArrayInputStream(
+                content.getBytes(StandardCharsets.UTF_8)),
+            base.toString(), base)) {
+            return parser.parse();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.idxmvn;
+
+import aQute.service.reporter.Reporter;
+import de.mnl.osgi.bnd.repository.maven.idxmvn.IndexedMavenRepository.RefreshResult;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the directories of the requested groups for changes of
+ * their {@code group.properties} and the index database directory
+ * for added or removed group directories. Changes are collected
+ * until no further change has been reported for the configured delay.
+ * The changed groups are then refreshed with
+ * {@link IndexedMavenRepository#refresh(String)} on the watcher's
+ * thread. Groups that cannot be refreshed because another refresh is
+ * in progress are retried after the next delay.
+ */
+@SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+/* default */ class GroupsWatcher implements Closeable {
+
+    private static final Logger LOG
+        = LoggerFactory.getLogger(GroupsWatcher.class);
+    private static final String GROUP_PROPERTIES = "group.properties";
+
+    private final IndexedMavenRepository repository;
+    private final Path indexDbDir;
+    private final long delay;
+    private final Consumer<Set<String>> listener;
+    private final Reporter reporter;
+    private final WatchService watchService;
+    private final Thread watcher;
+    private final Set<String> changed = new TreeSet<>();
+
+    /**
+     * Creates a new watcher and starts watching.
+     *
+     * @param repository the repository
+     * @param indexDbDir the index database directory
+     * @param delay the time without changes before a refresh is started
+     * @param listener invoked with the ids of the refreshed groups
+     * @param reporter the reporter
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
+    public GroupsWatcher(IndexedMavenRepository repository, Path indexDbDir,
+            Duration delay, Consumer<Set<String>> listener, Reporter reporter)
+            throws IOException {
+        this.repository = repository;
+        this.indexDbDir = indexDbDir;
+        this.delay = delay.toMillis();
+        this.listener = listener;
+        this.reporter = reporter;
+        watchService = indexDbDir.getFileSystem().newWatchService();
+        indexDbDir.register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+        try (Stream<Path> dirs = Files.list(indexDbDir)) {
+            dirs.filter(this::isGroupDir).forEach(this::register);
+        }
+        watcher = new Thread(this::run, "IndexedMaven Watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private boolean isGroupDir(Path path) {
+        return IndexedMavenRepository.isGroupDirName(
+            path.getFileName().toString()) && Files.isDirectory(path);
+    }
+
+    private void register(Path groupDir) {
+        try {
+            groupDir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY,
+                ENTRY_DELETE);
+        } catch (IOException e) {
+            reporter.warning("Cannot watch %s (ignored): %s", groupDir,
+                e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = changed.isEmpty() ? watchService.take()
+                    : watchService.poll(delay, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // Quiet for the configured time.
+                    refreshChanged();
+                    continue;
+                }
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        continue;
+                    }
+                    handle(dir, event.kind(), (Path) event.context());
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private void handle(Path dir, WatchEvent.Kind<?> kind, Path name) {
+        if (dir.equals(indexDbDir)) {
+            // Group directory added or removed
+            String groupId = name.toString();
+            if (!IndexedMavenRepository.isGroupDirName(groupId)) {
+                return;
+            }
+            if (kind == ENTRY_CREATE && isGroupDir(dir.resolve(name))) {
+                register(dir.resolve(name));
+                changed.add(groupId);
+            } else if (kind == ENTRY_DELETE
+                && repository.requestedGroups().contains(groupId)) {
+                changed.add(groupId);
+            }
+            return;
+        }
+        if (GROUP_PROPERTIES.equals(name.toString())) {
+            changed.add(dir.getFileName().toString());
+        }
+    }
+
+    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
+        "PMD.GuardLogStatement" })
+    private void refreshChanged() {
+        Set<String> refreshed = new TreeSet<>();
+        for (Iterator<String> iter = changed.iterator(); iter.hasNext();) {
+            String groupId = iter.next();
+            LOG.debug("Refreshing changed group {}.", groupId);
+            try {
+                RefreshResult result = repository.refresh(groupId);
+                if (result == RefreshResult.BUSY) {
+                    // Try again later.
+                    continue;
+                }
+                if (result == RefreshResult.REFRESHED) {
+                    refreshed.add(groupId);
+                }
+            } catch (Exception e) {
+                reporter.exception(e, "Refreshing %s failed: %s", groupId,
+                    e.getMessage());
+            }
+            iter.remove();
+        }
+        if (!refreshed.isEmpty()) {
+            listener.accept(Collections.unmodifiableSet(refreshed));
+        }
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcher.interrupt();
+    }
+}
@@ -65,9 +65,157 @@ public interface IndexedMavenConfiguration {
     String snapshotUrls();
 
     /**
-     * Must be set to get a log of the indexing operation.
+     * Must be set to get a log of the indexing operation. The events
+     * are written to {@code indexing.jsonl} in the group's directory
+     * while indexing, messages sorted by revision to
+     * {@code indexing.log} when indexing has completed.
      *
      * @return true, if a log is to be written
      */
     boolean logIndexing();
+
+    /**
+     * If set, changes of the {@code group.properties} files and added
+     * or removed group directories are picked up automatically by
+     * refreshing the affected groups in the background.
+     *
+     * @return true, if the group directories are to be watched
+     */
+    boolean watchGroups();
+
+    /**
+     * The time in milliseconds without further changes after which
+     * the changed groups are refreshed (see {@link #watchGroups()}).
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int watchDelay(int deflt);
+
+    /**
+     * If set, the archives of resources that are the only provider
+     * for a requirement are downloaded to the local repository in
+     * the background when they are found. When a resolved runtime
+     * is launched, its bundles are then usually available already.
+     * Disabled by default, because the providers are also looked up
+     * for other purposes than resolving, e.g. when browsing the
+     * repository.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    boolean prefetch(boolean deflt);
+
+    /**
+     * The time in seconds that coordinates which could not be resolved
+     * are remembered. Until then, they are not looked up again, not
+     * even by an explicit refresh of the repository.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int unresolvableTtl(int deflt);
+
+    /**
+     * The time in seconds that the metadata obtained for a snapshot
+     * revision is considered to be up-to-date. After this time, it
+     * is revalidated with the remote repository when used.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int snapshotTtl(int deflt);
+
+    /**
+     * The maximum total weight of the cached revision lists. Each
+     * program is weighted by 1 plus the number of its revisions.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int programCacheWeight(int deflt);
+
+    /**
+     * The maximum number of cached POM models.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int modelCacheSize(int deflt);
+
+    /**
+     * The maximum number of cached resources.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int resourceCacheSize(int deflt);
+
+    /**
+     * The timeout in milliseconds for establishing a connection.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int connectTimeout(int deflt);
+
+    /**
+     * The timeout in milliseconds for a request.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int requestTimeout(int deflt);
+
+    /**
+     * The number of retries of a failed request.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int retries(int deflt);
+
+    /**
+     * The delay in milliseconds before the first retry of a failed
+     * request.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int retryDelay(int deflt);
+
+    /**
+     * The number of consecutive failed requests after which a host
+     * is considered unavailable.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int failureThreshold(int deflt);
+
+    /**
+     * The time in milliseconds that a host is considered unavailable
+     * before a request is sent to it again.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int unavailableDelay(int deflt);
+
+    /**
+     * The maximum number of concurrent requests for metadata and
+     * directory listings.
+     *
+     * @param deflt the default value
+     * @return the result
+     */
+    int maxConnections(int deflt);
+
+    /**
+     * If set, directory listings are fetched using the JDK's HTTP
+     * client, which supports HTTP/2.
+     *
+     * @return true, if HTTP/2 is to be used
+     */
+    boolean http2();
 }
@@ -22,9 +22,14 @@ import aQute.bnd.http.HttpClient;
 import aQute.bnd.osgi.Processor;
 import aQute.bnd.osgi.repository.ResourcesRepository;
 import aQute.maven.api.Archive;
+import aQute.maven.api.Program;
 import aQute.maven.provider.MavenBackingRepository;
 import aQute.service.reporter.Reporter;
+import de.mnl.osgi.bnd.maven.HttpSettings;
+import de.mnl.osgi.bnd.maven.HttpTransport;
 import de.mnl.osgi.bnd.maven.MavenResourceRepository;
+import de.mnl.osgi.bnd.maven.PooledMavenRepository;
+import de.mnl.osgi.bnd.maven.UnresolvableCache;
 import static de.mnl.osgi.bnd.maven.RepositoryUtils.rethrow;
 import static de.mnl.osgi.bnd.maven.RepositoryUtils.unthrow;
 import java.io.File;
@@ -33,15 +38,20 @@ import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +59,9 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
@@ -79,6 +92,8 @@ public class IndexedMavenRepository extends ResourcesRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(
         IndexedMavenRepository.class);
+    /** Persists coordinates that could not be resolved. */
+    private static final String UNRESOLVABLE_FILE = ".unresolvable";
     private final String name;
     private final Path indexDbDir;
     private final Path depsDir;
@@ -87,15 +102,57 @@ public class IndexedMavenRepository extends ResourcesRepository {
     private final File localRepo;
     private final Reporter reporter;
     private final HttpClient client;
+    private final HttpTransport transport;
     private final boolean logIndexing;
     private final ExecutorService groupLoaders
         = Executors.newFixedThreadPool(4);
     private final MavenResourceRepository mavenRepository;
+    private final ResourceStore resourceStore = new ResourceStore();
     private final Map<String, MavenGroupRepository> groups
         = new ConcurrentHashMap<>();
     private Map<String, MavenGroupRepository> backupGroups
         = Collections.emptyMap();
     private final AtomicBoolean refreshing = new AtomicBoolean();
+    private GroupsWatcher watcher;
+    private final Map<String, Duration> refreshStages = new LinkedHashMap<>();
+    private long stageStarted;
+
+    /**
+     * The result of a partial refresh.
+     */
+    public enum RefreshResult {
+        /** The content has been refreshed. */
+        REFRESHED,
+        /** The content could not be refreshed, possibly due to an error. */
+        FAILED,
+        /** Another refresh is in progress, nothing has been done. */
+        BUSY
+    }
+
+    /**
+     * Create a new instance that uses the provided information/resources 
+     * to perform its work.
+     *
+     * @param name the name
+     * @param releaseUrls the release urls
+     * @param snapshotUrls the snapshot urls
+     * @param localRepo the local Maven repository (cache)
+     * @param indexDbDir the persistent representation of this repository's 
+     * content
+     * @param reporter a reporter for reporting the progress
+     * @param client an HTTP client for obtaining information from the Nexus
+     * server
+     * @param logIndexing the log indexing
+     * @throws Exception the exception
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public IndexedMavenRepository(String name, List<URL> releaseUrls,
+            List<URL> snapshotUrls, File localRepo, File indexDbDir,
+            Reporter reporter, HttpClient client, boolean logIndexing)
+            throws Exception {
+        this(name, releaseUrls, snapshotUrls, localRepo, indexDbDir,
+            reporter, client, new HttpSettings(), logIndexing);
+    }
 
     /**
      * Create a new instance that uses the provided information/resources 
@@ -110,15 +167,49 @@ public class IndexedMavenRepository extends ResourcesRepository {
      * @param reporter a reporter for reporting the progress
      * @param client an HTTP client for obtaining information from the Nexus
      * server
+     * @param httpSettings the settings for fetching the directory listings
      * @param logIndexing the log indexing
      * @throws Exception the exception
      */
+    @SuppressWarnings({ "PMD.SignatureDeclareThrowsException",
+        "PMD.ExcessiveParameterList" })
+    public IndexedMavenRepository(String name, List<URL> releaseUrls,
+            List<URL> snapshotUrls, File localRepo, File indexDbDir,
+            Reporter reporter, HttpClient client, HttpSettings httpSettings,
+            boolean logIndexing) throws Exception {
+        this(name, releaseUrls, snapshotUrls, localRepo, indexDbDir,
+            reporter, client, httpSettings, logIndexing, repository -> {
+            });
+    }
+
+    /**
+     * Create a new instance that uses the provided information/resources 
+     * to perform its work. The configurer is invoked with the backing
+     * Maven repository before the persisted information is restored,
+     * thus allowing e.g. cache settings to apply to the initial load.
+     *
+     * @param name the name
+     * @param releaseUrls the release urls
+     * @param snapshotUrls the snapshot urls
+     * @param localRepo the local Maven repository (cache)
+     * @param indexDbDir the persistent representation of this repository's 
+     * content
+     * @param reporter a reporter for reporting the progress
+     * @param client an HTTP client for obtaining information from the Nexus
+     * server
+     * @param httpSettings the settings for fetching the directory listings
+     * @param logIndexing the log indexing
+     * @param configurer the configurer for the backing Maven repository
+     * @throws Exception the exception
+     */
     @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
         "PMD.SignatureDeclareThrowsException", "PMD.AvoidDuplicateLiterals",
-        "PMD.UseProperClassLoader", "PMD.GuardLogStatement" })
+        "PMD.UseProperClassLoader", "PMD.GuardLogStatement",
+        "PMD.ExcessiveParameterList" })
     public IndexedMavenRepository(String name, List<URL> releaseUrls,
             List<URL> snapshotUrls, File localRepo, File indexDbDir,
-            Reporter reporter, HttpClient client, boolean logIndexing)
+            Reporter reporter, HttpClient client, HttpSettings httpSettings,
+            boolean logIndexing, Consumer<MavenResourceRepository> configurer)
             throws Exception {
         this.name = name;
         this.indexDbDir = indexDbDir.toPath();
@@ -128,6 +219,7 @@ public class IndexedMavenRepository extends ResourcesRepository {
         this.localRepo = localRepo;
         this.reporter = reporter;
         this.client = client;
+        transport = new HttpTransport(client, httpSettings);
         this.logIndexing = logIndexing;
 
         // Check prerequisites
@@ -144,6 +236,10 @@ public class IndexedMavenRepository extends ResourcesRepository {
 
         // Our backing repository
         mavenRepository = createMavenRepository();
+        mavenRepository.setUnresolvableCache(new UnresolvableCache(
+            this.indexDbDir.resolve(UNRESOLVABLE_FILE),
+            releaseUrls + " " + snapshotUrls, UnresolvableCache.DEFAULT_TTL));
+        configurer.accept(mavenRepository);
 
         // The remainder of the initialization is done in restore.
         restore();
@@ -154,12 +250,12 @@ public class IndexedMavenRepository extends ResourcesRepository {
         // Create repository from URLs
         List<MavenBackingRepository> releaseBackers = new ArrayList<>();
         for (URL url : releaseUrls) {
-            releaseBackers.addAll(MavenBackingRepository.create(
+            releaseBackers.addAll(PooledMavenRepository.backingRepositories(
                 url.toString(), reporter, localRepo, client));
         }
         List<MavenBackingRepository> snapshotBackers = new ArrayList<>();
         for (URL url : snapshotUrls) {
-            snapshotBackers.addAll(MavenBackingRepository.create(
+            snapshotBackers.addAll(PooledMavenRepository.backingRepositories(
                 url.toString(), reporter, localRepo, client));
         }
         return new MavenResourceRepository(
@@ -168,9 +264,70 @@ public class IndexedMavenRepository extends ResourcesRepository {
                 .setResourceSupplier(this::restoreResource);
     }
 
+    private void persistUnresolvable() {
+        try {
+            mavenRepository.unresolvableCache().persist();
+        } catch (IOException e) {
+            reporter.warning("Cannot persist unresolvable coordinates: %s",
+                e.getMessage());
+        }
+    }
+
     private Optional<Resource> restoreResource(Archive archive) {
-        return Optional.ofNullable(backupGroups.get(archive.revision.group))
-            .flatMap(group -> group.searchInBackup(archive));
+        String groupId = archive.revision.group;
+        return resourceStore.get(archive)
+            .or(() -> Optional.ofNullable(backupGroups.get(groupId))
+                .or(() -> Optional.ofNullable(groups.get(groupId)))
+                .flatMap(group -> group.searchInBackup(archive)));
+    }
+
+    /**
+     * Returns the store with the canonical resources.
+     *
+     * @return the resource store
+     */
+    /* default */ ResourceStore resourceStore() {
+        return resourceStore;
+    }
+
+    /**
+     * Collects the resources from all groups. Every resource is
+     * included once only, even if it is known to several groups.
+     * Resources that are no longer used by any group are removed
+     * from the {@link ResourceStore}.
+     *
+     * @return the resources
+     */
+    private List<Resource> collectResources() {
+        @SuppressWarnings("PMD.UseConcurrentHashMap")
+        Map<Object, Resource> collected = new LinkedHashMap<>();
+        for (MavenGroupRepository groupRepo : groups.values()) {
+            for (Resource resource : groupRepo.getResources()) {
+                collected.putIfAbsent(ResourceStore.archiveOf(resource)
+                    .<Object> map(archive -> archive).orElse(resource),
+                    resource);
+            }
+        }
+        List<Resource> result = new ArrayList<>(collected.values());
+        resourceStore.retain(result);
+        return result;
+    }
+
+    /**
+     * Deletes the given directory with all its content.
+     *
+     * @param directory the directory
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    /* default */ static void deleteDirectory(Path directory)
+            throws IOException {
+        if (!directory.toFile().exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile)
+                .forEach(File::delete);
+        }
     }
 
     /**
@@ -182,14 +339,18 @@ public class IndexedMavenRepository extends ResourcesRepository {
      * {@link #refresh()}.
      */
     private void restore() throws Exception {
+        startStages();
         groups.clear();
 
         // Create all group repositories with content from
         // index file (if such a file exists).
         Map<String, MavenGroupRepository> knownGroups
             = new ConcurrentHashMap<>();
-        CompletableFuture.allOf(scanRequested(knownGroups),
-            scanDependencies(knownGroups)).get();
+        // Scan requested first, groups that have moved from dependency
+        // to requested take over the content from the dependency group.
+        scanRequested(knownGroups).get();
+        scanDependencies(knownGroups).get();
+        stageCompleted("scan");
 
         // Refresh all repositories without an index file (empty)
         CompletableFuture.allOf(groups.values().stream()
@@ -201,6 +362,7 @@ public class IndexedMavenRepository extends ResourcesRepository {
                     throw new CompletionException(e);
                 }
             }, groupLoaders)).toArray(CompletableFuture[]::new)).get();
+        stageCompleted("reload");
 
         // Update index files (may have changed)
         if (new ArrayList<>(groups.values()).stream()
@@ -225,11 +387,12 @@ public class IndexedMavenRepository extends ResourcesRepository {
                 throw new CompletionException(e);
             }
         }
+        persistUnresolvable();
+        stageCompleted("persist");
 
         // This repository knows everything from the group repositories.
-        for (MavenGroupRepository groupRepo : groups.values()) {
-            addAll(groupRepo.getResources());
-        }
+        addAll(collectResources());
+        stageCompleted("collect");
     }
 
     /**
@@ -268,6 +431,58 @@ public class IndexedMavenRepository extends ResourcesRepository {
         return mavenRepository;
     }
 
+    /**
+     * Returns the transport used for fetching directory listings.
+     *
+     * @return the transport
+     */
+    public HttpTransport transport() {
+        return transport;
+    }
+
+    /**
+     * Returns the ids of the requested groups, sorted alphabetically.
+     *
+     * @return the group ids
+     */
+    public List<String> requestedGroups() {
+        return groups.values().stream()
+            .filter(MavenGroupRepository::isRequested)
+            .map(MavenGroupRepository::id).sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the time spent in the stages of the most recent
+     * refresh (or of the initial restore if there hasn't been
+     * a refresh yet) in the order of their execution.
+     *
+     * @return the stages with their durations
+     */
+    public Map<String, Duration> refreshStages() {
+        synchronized (refreshStages) {
+            return new LinkedHashMap<>(refreshStages);
+        }
+    }
+
+    private void startStages() {
+        synchronized (refreshStages) {
+            refreshStages.clear();
+            stageStarted = System.nanoTime();
+        }
+    }
+
+    @SuppressWarnings("PMD.GuardLogStatement")
+    private void stageCompleted(String stage) {
+        synchronized (refreshStages) {
+            long now = System.nanoTime();
+            refreshStages.put(stage, Duration.ofNanos(now - stageStarted));
+            stageStarted = now;
+            LOG.debug("Stage {} of {} took {}.", stage, name,
+                refreshStages.get(stage));
+        }
+    }
+
     /**
      * Get or create the group repository for the given group id.
      * If the repository is created, it is created as a repository
@@ -281,14 +496,23 @@ public class IndexedMavenRepository extends ResourcesRepository {
             throws IOException {
         @SuppressWarnings("PMD.PrematureDeclaration")
         MavenGroupRepository result = rethrow(IOException.class,
-            () -> groups.computeIfAbsent(groupId,
-                grp -> unthrow(() -> new MavenGroupRepository(grp,
-                    depsDir.resolve(grp), false, this, client, reporter))));
+            () -> groups.computeIfAbsent(groupId, grp -> {
+                MavenGroupRepository previous = backupGroups.get(grp);
+                if (previous != null) {
+                    // Has been requested, keep content as backup.
+                    previous.reuse(depsDir.resolve(grp), false);
+                    return previous;
+                }
+                return unthrow(() -> new MavenGroupRepository(grp,
+                    depsDir.resolve(grp), false, this, reporter));
+            }));
         return result;
     }
 
     /**
-     * Refresh this repository's content.
+     * Refresh this repository's content. Coordinates remembered as
+     * unresolvable are not looked up again until their entries
+     * expire (see {@link #forgetUnresolvable()}).
      * 
      * Synchronizes on {@code this}, to avoid parallel execution with
      * {@link #sync()}.
@@ -298,14 +522,115 @@ public class IndexedMavenRepository extends ResourcesRepository {
      */
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     public boolean refresh() throws Exception {
+        return exclusively(this::doRefresh) == RefreshResult.REFRESHED;
+    }
+
+    /**
+     * Forgets the coordinates remembered as unresolvable, i.e. they
+     * are looked up again by the next refresh.
+     */
+    public void forgetUnresolvable() {
+        mavenRepository.unresolvableCache().clear();
+        persistUnresolvable();
+    }
+
+    /**
+     * Refresh a single requested group. The cached information about
+     * the group's programs is invalidated and the group is reloaded.
+     * Other groups keep their content, they are only extended with
+     * new dependencies of the refreshed group. Index files are only
+     * rewritten if the content of the group has changed.
+     * <P>
+     * Resources that are no longer required as dependencies are
+     * removed by the next full {@link #refresh()}. A full refresh
+     * is also done if the group has become (or is no longer) a
+     * requested group.
+     *
+     * @param groupId the group id
+     * @return the result
+     * @throws Exception if a problem occurs
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public RefreshResult refresh(String groupId) throws Exception {
+        return exclusively(() -> doRefresh(groupId, null));
+    }
+
+    /**
+     * Refresh a single program from a requested group. Works like
+     * {@link #refresh(String)}, but only the given program is reloaded,
+     * the resources of the group's other programs are kept.
+     *
+     * @param program the program
+     * @return the result
+     * @throws Exception if a problem occurs
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    public RefreshResult refresh(Program program) throws Exception {
+        return exclusively(() -> doRefresh(program.group, program));
+    }
+
+    /**
+     * Checks if a refresh is in progress.
+     *
+     * @return true, if refreshing
+     */
+    public boolean isRefreshing() {
+        return refreshing.get();
+    }
+
+    /**
+     * Starts watching the index database directory. Changes of
+     * the {@code group.properties} of requested groups and added
+     * or removed group directories cause the affected groups to be
+     * refreshed in the background (see {@link #refresh(String)}),
+     * once no further changes have been reported for the given delay.
+     * Calling this method while already watching has no effect.
+     *
+     * @param delay the delay
+     * @param listener invoked with the ids of the refreshed groups
+     * after each background refresh
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void startWatching(Duration delay,
+            Consumer<Set<String>> listener) throws IOException {
+        synchronized (refreshing) {
+            if (watcher == null) {
+                watcher = new GroupsWatcher(this, indexDbDir, delay,
+                    listener, reporter);
+            }
+        }
+    }
+
+    /**
+     * Stops watching the index database directory.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void stopWatching() throws IOException {
+        synchronized (refreshing) {
+            if (watcher != null) {
+                watcher.close();
+                watcher = null;
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private RefreshResult exclusively(Callable<Boolean> refresher)
+            throws Exception {
         if (!refreshing.compareAndSet(false, true)) {
             reporter.warning("Repository is already refreshing.");
-            return false;
+            return RefreshResult.BUSY;
         }
         String threadName = Thread.currentThread().getName();
         try {
             Thread.currentThread().setName("IndexedMaven Refresher");
-            return doRefresh();
+            boolean result = refresher.call();
+            if (LOG.isDebugEnabled()) {
+                mavenRepository.cacheStats()
+                    .forEach(stats -> LOG.debug("Cache {}", stats));
+            }
+            return result ? RefreshResult.REFRESHED : RefreshResult.FAILED;
         } finally {
             Thread.currentThread().setName(threadName);
             refreshing.set(false);
@@ -316,6 +641,7 @@ public class IndexedMavenRepository extends ResourcesRepository {
         "PMD.AvoidDuplicateLiterals", "PMD.SignatureDeclareThrowsException",
         "PMD.CognitiveComplexity", "PMD.NPathComplexity" })
     private boolean doRefresh() throws Exception {
+        startStages();
         mavenRepository.reset();
 
         // Reuse and clear (or create new) group repositories for the existing
@@ -325,11 +651,13 @@ public class IndexedMavenRepository extends ResourcesRepository {
         for (var group : backupGroups.values()) {
             group.prepareRefresh();
         }
+        stageCompleted("prepare");
 
         // Scan requested first to avoid problems if a group is moved from
         // dependency to requested.
         scanRequested(backupGroups).get();
         scanDependencies(backupGroups).get();
+        stageCompleted("scan");
 
         // Refresh them all.
         @SuppressWarnings("PMD.GuardLogStatement")
@@ -350,6 +678,7 @@ public class IndexedMavenRepository extends ResourcesRepository {
                 }, groupLoaders))
                 .toArray(CompletableFuture[]::new);
         CompletableFuture.allOf(repoLoaders).get();
+        stageCompleted("reload");
         // Remove no longer required group repositories.
         for (Iterator<Map.Entry<String, MavenGroupRepository>> iter
             = groups.entrySet().iterator(); iter.hasNext();) {
@@ -383,16 +712,80 @@ public class IndexedMavenRepository extends ResourcesRepository {
                 }
             }, groupLoaders),
             // Add collected to root (this).
-            CompletableFuture.runAsync(() -> {
-                set(Collections.emptyList());
-                for (MavenGroupRepository groupRepo : groups.values()) {
-                    addAll(groupRepo.getResources());
-                }
-            }, groupLoaders)).get();
+            CompletableFuture.runAsync(() -> set(collectResources()),
+                groupLoaders)).get();
+        persistUnresolvable();
+        stageCompleted("persist");
         backupGroups = groups;
         return true;
     }
 
+    @SuppressWarnings({ "PMD.SignatureDeclareThrowsException",
+        "PMD.ConfusingTernary" })
+    private boolean doRefresh(String groupId, Program program)
+            throws Exception {
+        Path groupDir = indexDbDir.resolve(groupId);
+        boolean requested = groupDir.toFile().isDirectory();
+        MavenGroupRepository group = groups.get(groupId);
+        if (!requested && group == null) {
+            reporter.warning("%s is not a requested group.", groupId);
+            return false;
+        }
+        if (!requested || group != null && !group.isRequested()) {
+            // Group has been added or removed as requested group.
+            return doRefresh();
+        }
+        startStages();
+        mavenRepository.reset(program == null
+            ? prg -> prg.group.equals(groupId)
+            : program::equals);
+
+        // Other groups keep their content.
+        Set<String> knownGroups = new HashSet<>(groups.keySet());
+        backupGroups = groups;
+        for (var other : groups.values()) {
+            if (other != group) {
+                other.prepareUpdate();
+            }
+        }
+        if (group == null) {
+            group = new MavenGroupRepository(groupId, groupDir, true, this,
+                reporter);
+            groups.put(groupId, group);
+        }
+        group.prepareRefresh();
+        group.reuse(groupDir, true);
+        stageCompleted("prepare");
+
+        if (program == null) {
+            group.reload();
+        } else {
+            group.reload(program);
+        }
+        stageCompleted("reload");
+
+        // Persist (only the changed index files are written).
+        CompletableFuture.allOf(new ArrayList<>(groups.values()).stream()
+            .map(repo -> CompletableFuture.runAsync(() -> {
+                try {
+                    repo.flush();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, groupLoaders)).toArray(CompletableFuture[]::new)).get();
+        if (!groups.keySet().equals(knownGroups)) {
+            try (OutputStream fos
+                = Files.newOutputStream(indexDbDir.resolve("index.xml"))) {
+                writeFederatedIndex(fos);
+            }
+        }
+        // Publish the new content in one step.
+        set(collectResources());
+        persistUnresolvable();
+        stageCompleted("persist");
+        return true;
+    }
+
     /**
      * Iterates through all requested groups and makes sure that
      * a {@link MavenGroupRepository} exists for each of them.
@@ -404,15 +797,25 @@ public class IndexedMavenRepository extends ResourcesRepository {
             scanRequested(Map<String, MavenGroupRepository> knownGroups) {
         return CompletableFuture.allOf(
             Arrays.stream(indexDbDir.toFile().list()).parallel()
-                .filter(dir -> dir.matches("^[A-Za-z].*")
-                    && !"index.xml".equals(dir)
-                    && !"dependencies".equals(dir))
+                .filter(IndexedMavenRepository::isGroupDirName)
                 .map(groupId -> CompletableFuture
                     .runAsync(() -> restoreGroup(knownGroups, groupId, true),
                         groupLoaders))
                 .toArray(CompletableFuture[]::new));
     }
 
+    /**
+     * Checks if the given name is the name of a requested group's
+     * directory in the index database directory.
+     *
+     * @param name the name
+     * @return true, if successful
+     */
+    /* package */ static boolean isGroupDirName(String name) {
+        return name.matches("^[A-Za-z].*") && !"index.xml".equals(name)
+            && !"dependencies".equals(name);
+    }
+
     /**
      * Iterates through all dependency groups and makes sure that
      * a {@link MavenGroupRepository} exists for each of them.
@@ -432,10 +835,7 @@ public class IndexedMavenRepository extends ResourcesRepository {
                     if (groups.containsKey(dir)) {
                         // Is/has become explicitly requested
                         try {
-                            Files.walk(depsDir.resolve(dir))
-                                .sorted(Comparator.reverseOrder())
-                                .map(Path::toFile)
-                                .forEach(File::delete);
+                            deleteDirectory(depsDir.resolve(dir));
                         } catch (IOException e) {
                             throw new IllegalStateException(e);
                         }
@@ -455,6 +855,11 @@ public class IndexedMavenRepository extends ResourcesRepository {
      * If knownGroups already has a {@link MavenGroupRepository} for
      * the given groupId, it is reused. Else, a new
      * {@link MavenGroupRepository} is created.
+     * <P>
+     * If a group has become a requested group, its index is moved
+     * from the dependencies directory to the group's directory. The
+     * resources from the index are used as backup when the group is
+     * reloaded.
      *
      * @param knownGroups the known groups
      * @param groupId the group id
@@ -462,6 +867,15 @@ public class IndexedMavenRepository extends ResourcesRepository {
      */
     private void restoreGroup(Map<String, MavenGroupRepository> knownGroups,
             String groupId, boolean requested) {
+        Path groupDir = (requested ? indexDbDir : depsDir).resolve(groupId);
+        boolean moved;
+        try {
+            moved = requested && moveDependencyIndex(groupId, groupDir);
+        } catch (IOException e) {
+            reporter.exception(e, "Cannot move index of %s: %s",
+                groupId, e.getMessage());
+            moved = false;
+        }
         if (knownGroups.containsKey(groupId)) {
             // Reuse existing.
             MavenGroupRepository groupRepo = knownGroups.get(groupId);
@@ -471,10 +885,12 @@ public class IndexedMavenRepository extends ResourcesRepository {
             return;
         }
         try {
-            MavenGroupRepository groupRepo
-                = new MavenGroupRepository(groupId,
-                    (requested ? indexDbDir : depsDir).resolve(groupId),
-                    requested, this, client, reporter);
+            MavenGroupRepository groupRepo = new MavenGroupRepository(
+                groupId, groupDir, requested, this, reporter);
+            if (moved) {
+                // Content is only the group's dependencies, use as backup.
+                groupRepo.reuse(groupDir, true);
+            }
             groups.put(groupId, groupRepo);
         } catch (IOException e) {
             reporter.exception(e,
@@ -483,6 +899,29 @@ public class IndexedMavenRepository extends ResourcesRepository {
         }
     }
 
+    /**
+     * Moves the index of a dependency group to the given directory 
+     * of the requested group if the latter has no index yet. The
+     * remaining content of the dependency group's directory is
+     * deleted.
+     *
+     * @param groupId the group id
+     * @param groupDir the directory of the requested group
+     * @return true, if the index has been moved
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private boolean moveDependencyIndex(String groupId, Path groupDir)
+            throws IOException {
+        Path depIndex = depsDir.resolve(groupId).resolve("index.xml");
+        Path groupIndex = groupDir.resolve("index.xml");
+        if (groupIndex.toFile().exists() || !depIndex.toFile().exists()) {
+            return false;
+        }
+        Files.move(depIndex, groupIndex);
+        deleteDirectory(depsDir.resolve(groupId));
+        return true;
+    }
+
     private void writeFederatedIndex(OutputStream out) {
         DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
         dbf.setNamespaceAware(true);
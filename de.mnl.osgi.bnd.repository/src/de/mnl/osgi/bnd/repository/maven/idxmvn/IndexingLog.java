@@ -0,0 +1,493 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.idxmvn;
+
+import aQute.maven.api.Revision;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The log of the indexing operations of a group. Events are written
+ * asynchronously as JSON objects, one per line, to an append-only file.
+ * Producers are blocked if the writer falls behind, so the events
+ * held in memory are bounded.
+ * <P>
+ * Each event has the revision that it relates to, its kind, the
+ * archive that it is about (if any) and some related information
+ * such as another archive or an error message. A human readable
+ * view with the messages sorted by revision can be produced from
+ * the file with {@link #writeSortedView(Path, Path)}. The view is
+ * sorted in chunks of bounded size that are merged afterwards, so
+ * the heap used doesn't depend on the size of the log either.
+ */
+@SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+/* default */ class IndexingLog implements Closeable {
+
+    /** The maximum number of events waiting to be written. */
+    private static final int QUEUE_CAPACITY = 1024;
+    /** The maximum number of events sorted in memory. */
+    private static final int SORT_CHUNK_SIZE = 10_000;
+    private static final Event END = new Event(null, null, null, null);
+    private static final Pattern REVISION_FIELD
+        = Pattern.compile("\"revision\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern MESSAGE_FIELD
+        = Pattern.compile("\"message\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    /**
+     * The kinds of events.
+     */
+    public enum Kind {
+        INDEXING("%s in revision list, indexing..."),
+        ALREADY_HANDLED("%s from revision list already handled as dependency."),
+        NOT_SELECTED("%s not selected for indexing."),
+        OUT_OF_ORDER("%s skipped, violates OSGi version order."),
+        EXCLUDED("%s is excluded by rule."),
+        DEPENDENCIES("%s has dependencies: %s"),
+        CHECKING_AS_DEPENDENCY("%s is checked as dependency of %s..."),
+        LACKS_DEPENDENCY("%s lacks dependency: %s"),
+        LACKS_DEPENDENCIES("%s skipped due to unavailable dependencies."),
+        EXCLUDED_BLOCKS("%s is excluded, thus blocks %s."),
+        LACKS_DEPENDENCIES_BLOCKS("%s lacks dependencies, thus blocks %s."),
+        DEPENDENCIES_FAILED("Failed to get dependencies of %s: %s"),
+        DEPENDENCY_NOT_ADDED("%s failed to add depedendency %s."),
+        LOAD_FAILED("%s failed to load."),
+        ADDED("%s added to index."),
+        NOT_INDEXED("%s could not be indexed: %s.");
+
+        private final String format;
+
+        Kind(String format) {
+            this.format = format;
+        }
+
+        /**
+         * Returns the message for an event of this kind.
+         *
+         * @param subject the subject of the event
+         * @param related the related information
+         * @return the message
+         */
+        public String message(Object subject, Object related) {
+            return String.format(format, subject, related);
+        }
+    }
+
+    /**
+     * An event.
+     */
+    private static class Event {
+        public final long time;
+        public final Revision revision;
+        public final Kind kind;
+        public final String subject;
+        public final String related;
+
+        /**
+         * Instantiates a new event.
+         *
+         * @param revision the revision
+         * @param kind the kind
+         * @param subject the subject
+         * @param related the related information
+         */
+        public Event(Revision revision, Kind kind, String subject,
+                String related) {
+            time = System.currentTimeMillis();
+            this.revision = revision;
+            this.kind = kind;
+            this.subject = subject;
+            this.related = related;
+        }
+    }
+
+    private final BlockingQueue<Event> queue
+        = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BufferedWriter out;
+    private final Thread writer;
+    private final Object closeLock = new Object();
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Creates a new log that writes to the given file. An existing
+     * file is replaced.
+     *
+     * @param path the path
+     * @param name the name used for the writer thread
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public IndexingLog(Path path, String name) throws IOException {
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        writer = new Thread(this::write, "IndexingLog " + name);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Logs an event. Events logged after the log has been closed
+     * are dropped.
+     *
+     * @param revision the revision that the event relates to
+     * @param kind the kind of event
+     * @param subject the archive (or revision) that the event is about
+     * @param related the related information, may be {@code null}
+     */
+    public void log(Revision revision, Kind kind, Object subject,
+            Object related) {
+        Event event = new Event(revision, kind, subject.toString(),
+            related == null ? null : related.toString());
+        try {
+            // Checking closed and adding the event must be atomic,
+            // else the event may be added after END and block forever.
+            // The writer thread doesn't need the lock to proceed.
+            synchronized (closeLock) {
+                if (!closed) {
+                    queue.put(event);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                Event event = queue.take();
+                if (event == END) {
+                    break;
+                }
+                if (failure != null) {
+                    // Keep draining the queue, producers mustn't block.
+                    continue;
+                }
+                try {
+                    out.write(toJson(event));
+                    out.newLine();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException();
+        }
+    }
+
+    private static String toJson(Event event) {
+        StringBuilder json = new StringBuilder(200);
+        json.append("{\"time\":").append(event.time);
+        appendField(json, "revision", event.revision.toString());
+        appendField(json, "kind", event.kind.name());
+        appendField(json, "archive", event.subject);
+        if (event.related != null) {
+            appendField(json, "related", event.related);
+        }
+        appendField(json, "message",
+            event.kind.message(event.subject, event.related));
+        return json.append('}').toString();
+    }
+
+    private static void appendField(StringBuilder json, String name,
+            String value) {
+        json.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char chr = value.charAt(i);
+            switch (chr) {
+            case '"':
+            case '\\':
+                json.append('\\').append(chr);
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (chr < ' ') {
+                    json.append(String.format("\\u%04x", (int) chr));
+                } else {
+                    json.append(chr);
+                }
+                break;
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Writes all pending events and closes the file.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (closeLock) {
+                if (!closed) {
+                    closed = true;
+                    queue.put(END);
+                }
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes the messages from the given event log, sorted by 
+     * revision. Messages related to the same revision are written
+     * in the order in which they were logged.
+     * <P>
+     * At most {@link #SORT_CHUNK_SIZE} events are held in memory. 
+     * Larger logs are sorted in chunks that are written to temporary
+     * files and merged.
+     *
+     * @param events the event log
+     * @param view the file to write the messages to
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static void writeSortedView(Path events, Path view)
+            throws IOException {
+        List<Path> chunks = new ArrayList<>();
+        try {
+            List<Map.Entry<Revision, String>> entries = new ArrayList<>();
+            try (BufferedReader in
+                = Files.newBufferedReader(events, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Revision revision = revisionOf(line);
+                    if (revision == null) {
+                        continue;
+                    }
+                    entries.add(new SimpleImmutableEntry<>(revision, line));
+                    if (entries.size() >= SORT_CHUNK_SIZE) {
+                        chunks.add(writeChunk(view, entries));
+                        entries.clear();
+                    }
+                }
+            }
+            if (chunks.isEmpty()) {
+                // Sort is stable, i.e. keeps the order of messages.
+                entries.sort(Map.Entry.comparingByKey());
+                writeView(view, entries.stream().map(Map.Entry::getValue)
+                    .iterator());
+                return;
+            }
+            if (!entries.isEmpty()) {
+                chunks.add(writeChunk(view, entries));
+                entries.clear();
+            }
+            mergeChunks(view, chunks);
+        } finally {
+            for (Path chunk : chunks) {
+                Files.deleteIfExists(chunk);
+            }
+        }
+    }
+
+    private static Revision revisionOf(String line) {
+        Matcher revision = REVISION_FIELD.matcher(line);
+        if (!revision.find() || !MESSAGE_FIELD.matcher(line).find()) {
+            return null;
+        }
+        return Revision.valueOf(unescape(revision.group(1)));
+    }
+
+    private static Path writeChunk(Path view,
+            List<Map.Entry<Revision, String>> entries) throws IOException {
+        entries.sort(Map.Entry.comparingByKey());
+        Path chunk = Files.createTempFile(view.getParent(),
+            view.getFileName().toString(), ".tmp");
+        try (BufferedWriter chunkOut
+            = Files.newBufferedWriter(chunk, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Revision, String> entry : entries) {
+                chunkOut.write(entry.getValue());
+                chunkOut.newLine();
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Merges the sorted chunks. Chunks are in logging order, so
+     * for the same revision, lines from the chunk with the lower
+     * index are written first.
+     */
+    @SuppressWarnings("PMD.CloseResource")
+    private static void mergeChunks(Path view, List<Path> chunks)
+            throws IOException {
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<ChunkHead> heads = new PriorityQueue<>();
+            for (Path chunk : chunks) {
+                BufferedReader reader
+                    = Files.newBufferedReader(chunk, StandardCharsets.UTF_8);
+                readers.add(reader);
+                ChunkHead.next(reader, readers.size() - 1)
+                    .ifPresent(heads::add);
+            }
+            writeView(view, new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public String next() {
+                    ChunkHead head = heads.poll();
+                    try {
+                        ChunkHead.next(readers.get(head.chunk), head.chunk)
+                            .ifPresent(heads::add);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return head.line;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void writeView(Path view, Iterator<String> lines)
+            throws IOException {
+        try (BufferedWriter viewOut = Files.newBufferedWriter(view,
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (lines.hasNext()) {
+                Matcher message = MESSAGE_FIELD.matcher(lines.next());
+                if (message.find()) {
+                    viewOut.write(unescape(message.group(1)));
+                    viewOut.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * The next line of a sorted chunk.
+     */
+    private static final class ChunkHead implements Comparable<ChunkHead> {
+        public final Revision revision;
+        public final String line;
+        public final int chunk;
+
+        private ChunkHead(Revision revision, String line, int chunk) {
+            this.revision = revision;
+            this.line = line;
+            this.chunk = chunk;
+        }
+
+        /**
+         * Reads the next line from the chunk.
+         */
+        public static Optional<ChunkHead> next(BufferedReader reader,
+                int chunk) throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new ChunkHead(revisionOf(line), line, chunk));
+        }
+
+        @Override
+        public int compareTo(ChunkHead other) {
+            int result = revision.compareTo(other.revision);
+            return result == 0 ? Integer.compare(chunk, other.chunk) : result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ChunkHead
+                && compareTo((ChunkHead) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return revision.hashCode() * 31 + chunk;
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char chr = value.charAt(i);
+            if (chr != '\\' || i + 1 >= value.length()) {
+                result.append(chr);
+                continue;
+            }
+            chr = value.charAt(++i);
+            switch (chr) {
+            case 'n':
+                result.append('\n');
+                break;
+            case 'r':
+                result.append('\r');
+                break;
+            case 't':
+                result.append('\t');
+                break;
+            case 'u':
+                result.append(
+                    (char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                i += 4;
+                break;
+            default:
+                result.append(chr);
+                break;
+            }
+        }
+        return result.toString();
+    }
+}
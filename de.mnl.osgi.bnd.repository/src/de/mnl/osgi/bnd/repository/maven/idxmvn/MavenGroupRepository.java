@@ -18,11 +18,8 @@
 
 package de.mnl.osgi.bnd.repository.maven.idxmvn;
 
-import aQute.bnd.deployer.repository.RepoResourceUtils;
-import aQute.bnd.http.HttpClient;
 import aQute.bnd.osgi.repository.ResourcesRepository;
 import aQute.bnd.osgi.repository.XMLResourceGenerator;
-import aQute.bnd.osgi.repository.XMLResourceParser;
 import aQute.bnd.osgi.resource.ResourceBuilder;
 import aQute.bnd.osgi.resource.ResourceUtils;
 import aQute.bnd.version.Version;
@@ -37,21 +34,20 @@ import de.mnl.osgi.bnd.maven.MavenResourceException;
 import de.mnl.osgi.bnd.maven.MavenVersion;
 import de.mnl.osgi.bnd.maven.MavenVersionRange;
 import de.mnl.osgi.bnd.maven.MavenVersionSpecification;
-import static de.mnl.osgi.bnd.maven.RepositoryUtils.rethrow;
-import static de.mnl.osgi.bnd.maven.RepositoryUtils.unthrow;
-import java.io.File;
+import de.mnl.osgi.bnd.maven.UnresolvableCache;
+import de.mnl.osgi.bnd.repository.maven.idxmvn.IndexingLog.Kind;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
 import java.net.URI;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -61,6 +57,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -91,7 +88,6 @@ public class MavenGroupRepository extends ResourcesRepository {
     private final String groupId;
     private boolean requested;
     private final IndexedMavenRepository indexedRepository;
-    private final HttpClient client;
     private final Reporter reporter;
     private Path groupDir;
     private Path groupPropsPath;
@@ -101,9 +97,13 @@ public class MavenGroupRepository extends ResourcesRepository {
     private final ConcurrentMap<Archive, IndexingState> indexingState
         = new ConcurrentHashMap<>();
     private ResourcesRepository backupRepo;
-    private Writer indexingLog;
-    private final Map<Revision, List<String>> loggedMessages
-        = new ConcurrentHashMap<>();
+    private Map<String, Collection<Resource>> backupSupporting
+        = Collections.emptyMap();
+    private Map<String, Resource> backupByArchive = Collections.emptyMap();
+    private volatile IndexingLog indexingLog;
+
+    private static final String INDEXING_EVENTS = "indexing.jsonl";
+    private static final String INDEXING_LOG = "indexing.log";
 
     @SuppressWarnings("PMD.FieldNamingConventions")
     private static final Pattern hrefPattern = Pattern.compile(
@@ -118,7 +118,6 @@ public class MavenGroupRepository extends ResourcesRepository {
      * @param directory the directory used to persist data
      * @param requested if it is a requested group id
      * @param indexedRepository the indexed maven repository
-     * @param client the client used for remote access
      * @param reporter the reporter
      * @throws IOException Signals that an I/O exception has occurred.
      */
@@ -127,19 +126,17 @@ public class MavenGroupRepository extends ResourcesRepository {
         "PMD.GuardLogStatement" })
     public MavenGroupRepository(String groupId, Path directory,
             boolean requested, IndexedMavenRepository indexedRepository,
-            HttpClient client, Reporter reporter) throws IOException {
+            Reporter reporter) throws IOException {
         this.groupId = groupId;
         this.requested = requested;
         this.indexedRepository = indexedRepository;
-        this.client = client;
         this.reporter = reporter;
         updatePaths(directory);
 
         // Restore persisted resources and "reuse" (loads properties).
         if (groupIndexPath.toFile().canRead()) {
-            try (XMLResourceParser parser
-                = new XMLResourceParser(groupIndexPath.toFile())) {
-                addAll(parser.parse());
+            try {
+                addAll(GroupIndexParser.parse(groupIndexPath));
             } catch (Exception e) { // NOPMD
                 reporter.warning("Cannot parse %s, ignored: %s", groupIndexPath,
                     e.getMessage());
@@ -149,16 +146,39 @@ public class MavenGroupRepository extends ResourcesRepository {
 
         // Restore indexing state for restored archives (assumed to be
         // up to date, no refresh).
-        for (Capability cap : backupRepo.findProvider(
-            newRequirementBuilder("bnd.info").build())) {
-            add(retrieveSupporting(cap.getResource()));
-            indexingState.put(
-                Archive.valueOf((String) cap.getAttributes().get("from")),
-                IndexingState.INDEXED);
-        }
+        restoreFromBackup(archive -> true);
         LOG.debug("Created group repository for {}.", groupId);
     }
 
+    /**
+     * Restores the resources created from the selected archives from
+     * the backup and marks the archives as indexed. Rebuilding the
+     * resources with their supporting resources is done in parallel.
+     *
+     * @param selected the predicate that selects the archives
+     */
+    private void restoreFromBackup(Predicate<Archive> selected) {
+        List<Map.Entry<Archive, Resource>> entries
+            = backupByArchive.entrySet().parallelStream()
+                .map(entry -> new SimpleImmutableEntry<>(
+                    Archive.valueOf(entry.getKey()), entry.getValue()))
+                .filter(entry -> selected.test(entry.getKey()))
+                .map(entry -> new SimpleImmutableEntry<>(entry.getKey(),
+                    store().get(entry.getKey()).orElseGet(() -> store()
+                        .canonical(retrieveSupporting(entry.getValue())))))
+                .collect(Collectors.toList());
+        synchronized (this) {
+            for (var entry : entries) {
+                add(entry.getValue());
+                indexingState.put(entry.getKey(), IndexingState.INDEXED);
+            }
+        }
+    }
+
+    private ResourceStore store() {
+        return indexedRepository.resourceStore();
+    }
+
     private void updatePaths(Path directory) {
         if (!directory.toFile().exists()) {
             directory.toFile().mkdir();
@@ -217,7 +237,7 @@ public class MavenGroupRepository extends ResourcesRepository {
      */
     public boolean flush() throws IOException {
         boolean indexChanged = true;
-        if (backupRepo != null) {
+        if (backupRepo != null && groupIndexPath.toFile().exists()) {
             // See #add, we cannot rely on Resource's hasCode/equals.
             var oldSet = backupRepo.getResources().stream()
                 .map(ResourceUtils::getIdentityCapability)
@@ -243,17 +263,14 @@ public class MavenGroupRepository extends ResourcesRepository {
                 reporter.exception(e, "Cannot save %s.", groupIndexPath);
             }
         }
-        backupRepo = null;
+        dropBackup();
         if (indexingLog != null) {
-            rethrow(IOException.class, () -> loggedMessages.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .flatMap(e -> e.getValue().stream())
-                .forEach(msg -> unthrow(() -> indexingLog
-                    .write(msg + System.lineSeparator()))));
-            indexingLog.close();
+            IndexingLog log = indexingLog;
             indexingLog = null;
+            log.close();
+            IndexingLog.writeSortedView(groupDir.resolve(INDEXING_EVENTS),
+                groupDir.resolve(INDEXING_LOG));
         }
-        loggedMessages.clear();
         indexingState.clear();
         return indexChanged;
     }
@@ -270,10 +287,7 @@ public class MavenGroupRepository extends ResourcesRepository {
             return false;
         }
         // Nothing in this group
-        Files.walk(groupDir)
-            .sorted(Comparator.reverseOrder())
-            .map(Path::toFile)
-            .forEach(File::delete);
+        IndexedMavenRepository.deleteDirectory(groupDir);
         return true;
     }
 
@@ -291,7 +305,9 @@ public class MavenGroupRepository extends ResourcesRepository {
      * Reuse the repository for the given directory as either requested or
      * dependency repository. Updates the path and the requested flag. Keeps
      * the current content as backup for reuse in a subsequent call to 
-     * {@link #reload()}.
+     * {@link #reload()}. This includes the case that the group has moved,
+     * i.e. has changed its role from a dependency group to a requested
+     * group or vice versa. The analyzed resources don't depend on the role.
      *
      * @param directory this group's directory
      * @param requested whether this is a requested group
@@ -303,11 +319,9 @@ public class MavenGroupRepository extends ResourcesRepository {
             this.requested = requested;
             if (!groupDir.equals(directory)) {
                 updatePaths(directory);
-                backupRepo = null;
-            } else {
-                // Save current content and clear.
-                backupRepo = new ResourcesRepository(getResources());
             }
+            // Save current content and clear.
+            backup(getResources());
             set(Collections.emptyList());
             // Clear and reload properties
             groupProps.clear();
@@ -335,14 +349,18 @@ public class MavenGroupRepository extends ResourcesRepository {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     /* package */ void prepareRefresh() throws IOException {
+        if (indexingLog != null) {
+            indexingLog.close();
+        }
         if (indexedRepository.logIndexing()) {
-            indexingLog = Files.newBufferedWriter(
-                groupDir.resolve("indexing.log"), Charset.defaultCharset());
+            indexingLog = new IndexingLog(groupDir.resolve(INDEXING_EVENTS),
+                groupId);
         } else {
             // Don't keep out-dated log files, it's irritating.
-            groupDir.resolve("indexing.log").toFile().delete();
+            indexingLog = null;
+            groupDir.resolve(INDEXING_EVENTS).toFile().delete();
+            groupDir.resolve(INDEXING_LOG).toFile().delete();
         }
-        loggedMessages.clear();
 
         if (!isRequested()) {
             // Will be filled with dependencies only
@@ -351,7 +369,25 @@ public class MavenGroupRepository extends ResourcesRepository {
         // Will be actively filled.
         synchronized (this) {
             if (backupRepo == null) {
-                backupRepo = new ResourcesRepository(getResources());
+                backup(getResources());
+            }
+        }
+    }
+
+    /**
+     * Prepares this group for being updated with dependencies during
+     * the partial refresh of another group (see 
+     * {@link IndexedMavenRepository#refresh(String)}). The current
+     * content is kept and marked as indexed. It is also used as 
+     * backup, which allows {@link #flush()} to find out whether the
+     * index file must be rewritten.
+     */
+    /* package */ void prepareUpdate() {
+        synchronized (this) {
+            backup(getResources());
+            for (String from : backupByArchive.keySet()) {
+                indexingState.put(Archive.valueOf(from),
+                    IndexingState.INDEXED);
             }
         }
     }
@@ -374,11 +410,33 @@ public class MavenGroupRepository extends ResourcesRepository {
             // Will be filled with dependencies only
             return;
         }
+        awaitLoaders(findArtifactIds().stream()
+            .map(artifactId -> loadProgram(
+                Program.valueOf(groupId, artifactId)))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Reload a single program of the repository. The resources
+     * of all other programs are restored from the backup.
+     *
+     * @param program the program
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    /* package */ void reload(Program program) throws IOException {
+        if (!isRequested()) {
+            // Will be filled with dependencies only
+            return;
+        }
+        restoreFromBackup(archive -> !archive.revision.program.equals(program));
+        awaitLoaders(loadProgram(program));
+    }
+
+    @SuppressWarnings({ "PMD.AvoidThrowingRawExceptionTypes",
+        "PMD.PreserveStackTrace" })
+    private void awaitLoaders(CompletableFuture<?>... programLoaders)
+            throws IOException {
         try {
-            CompletableFuture<?>[] programLoaders = findArtifactIds().stream()
-                .map(artifactId -> loadProgram(
-                    Program.valueOf(groupId, artifactId)))
-                .toArray(CompletableFuture[]::new);
             CompletableFuture.allOf(programLoaders).get();
         } catch (ExecutionException e) {
             if (e.getCause() instanceof IOException) {
@@ -402,9 +460,8 @@ public class MavenGroupRepository extends ResourcesRepository {
             try {
                 groupUri
                     = repo.toURI("").resolve(groupId.replace('.', '/') + "/");
-                String page = client.build().headers("User-Agent", "Bnd")
-                    .get(String.class)
-                    .go(groupUri);
+                String page
+                    = indexedRepository.transport().getString(groupUri);
                 if (page == null) {
                     continue;
                 }
@@ -436,6 +493,9 @@ public class MavenGroupRepository extends ResourcesRepository {
             String threadName = Thread.currentThread().getName();
             try {
                 Thread.currentThread().setName("RevisionQuerier " + program);
+                // Revalidate the metadata of all snapshots up front
+                indexedRepository.mavenRepository().refreshSnapshots(program)
+                    .join();
                 var resources = listRevisions(program);
                 if (resources.isEmpty()) {
                     return;
@@ -452,22 +512,16 @@ public class MavenGroupRepository extends ResourcesRepository {
                         resource.archive(), IndexingState.CHECKING))
                         .orElse(
                             IndexingState.CHECKING) != IndexingState.CHECKING) {
-                        logIndexing(resource, () -> String.format(
-                            "%s from revision list already handled as dependency.",
-                            resource));
+                        logIndexing(resource, Kind.ALREADY_HANDLED);
                         continue;
                     }
-                    logIndexing(resource, () -> String.format(
-                        "%s in revision list, indexing...", resource));
+                    logIndexing(resource, Kind.INDEXING);
                     var deps = indexableDependencies(resource, true);
                     if (deps == null) {
                         if (indexingState.replace(archive,
                             IndexingState.CHECKING,
                             IndexingState.EXCL_BY_DEP)) {
-                            logIndexing(archive, () -> String.format(
-                                "%s skipped due to unavailable "
-                                    + "dependencies.",
-                                archive));
+                            logIndexing(archive, Kind.LACKS_DEPENDENCIES);
                         }
                         continue;
                     }
@@ -487,9 +541,7 @@ public class MavenGroupRepository extends ResourcesRepository {
                 var boundArchives
                     = VersionSpecification.toSelected(versionSpecs, revision);
                 if (boundArchives.isEmpty()) {
-                    logIndexing(revision.unbound(),
-                        () -> String.format("%s not selected for indexing.",
-                            revision.unbound()));
+                    logIndexing(revision.unbound(), Kind.NOT_SELECTED);
                 }
                 return boundArchives.stream();
             }).map(boundArchive -> {
@@ -519,8 +571,7 @@ public class MavenGroupRepository extends ResourcesRepository {
             if (lastVersion != null
                 && nextVersion.get().compareTo(lastVersion) >= 0) {
                 resourcesIter.remove();
-                logIndexing(next, () -> String.format(
-                    "%s skipped, violates OSGi version order.", next));
+                logIndexing(next, Kind.OUT_OF_ORDER);
                 continue;
             }
             lastVersion = nextVersion.get();
@@ -550,8 +601,7 @@ public class MavenGroupRepository extends ResourcesRepository {
             .includes(MavenVersion.from(archive.revision.version))) {
             if (indexingState.replace(archive, IndexingState.CHECKING,
                 IndexingState.EXCLUDED)) {
-                logIndexing(archive.revision,
-                    () -> String.format("%s is excluded by rule.", archive));
+                logIndexing(archive, Kind.EXCLUDED);
             }
             return false;
         }
@@ -571,8 +621,8 @@ public class MavenGroupRepository extends ResourcesRepository {
                 // No reason to fail completely.
                 reporter.exception(e, "Failed to add dependency %s of %s: %s",
                     depRes, resource, e.getMessage());
-                logIndexing(resource, () -> String.format(
-                    "%s failed to add depedendency %s.", resource, depRes));
+                logIndexing(resource, Kind.DEPENDENCY_NOT_ADDED,
+                    depRes::toString);
             }
         }
     }
@@ -588,8 +638,7 @@ public class MavenGroupRepository extends ResourcesRepository {
         } catch (IllegalArgumentException | MavenResourceException e) {
             reporter.exception(e, "Failed to get as resource %s: %s",
                 resource.archive(), e.getMessage());
-            logIndexing(resource,
-                () -> String.format("%s failed to load.", resource));
+            logIndexing(resource, Kind.LOAD_FAILED);
             return Optional.empty();
         }
     }
@@ -601,12 +650,11 @@ public class MavenGroupRepository extends ResourcesRepository {
         // Get dependencies and check them
         List<Dependency> dependencies = evaluateDependencies(resource);
         if (!dependencies.isEmpty() && log) {
-            logIndexing(resource,
-                () -> String.format("%s has dependencies: %s",
-                    resource, dependencies.stream()
-                        .map(d -> d.getGroupId() + ":" + d.getArtifactId() + ":"
-                            + d.getVersion())
-                        .collect(Collectors.joining(", "))));
+            logIndexing(resource, Kind.DEPENDENCIES,
+                () -> dependencies.stream()
+                    .map(d -> d.getGroupId() + ":" + d.getArtifactId() + ":"
+                        + d.getVersion())
+                    .collect(Collectors.joining(", ")));
         }
         Set<MavenResource> indexable = new HashSet<>();
         boolean isForced = VersionSpecification.isForced(versionSpecs,
@@ -625,10 +673,9 @@ public class MavenGroupRepository extends ResourcesRepository {
             var depsDeps = depRepo.collectTransient(resource, dep, isForced);
             if (depsDeps == null) {
                 if (log) {
-                    logIndexing(resource, () -> String.format(
-                        "%s lacks dependency: %s", resource,
-                        dep.getGroupId() + ":" + dep.getArtifactId() + ":"
-                            + dep.getVersion()));
+                    logIndexing(resource, Kind.LACKS_DEPENDENCY,
+                        () -> dep.getGroupId() + ":" + dep.getArtifactId()
+                            + ":" + dep.getVersion());
                 }
                 return null;
             }
@@ -660,23 +707,20 @@ public class MavenGroupRepository extends ResourcesRepository {
             if (dontFail) {
                 return collected;
             }
-            logIndexing(resource, () -> String.format(
-                "%s is excluded, thus blocks %s.", resource,
-                dependant));
+            logIndexing(resource, Kind.EXCLUDED_BLOCKS, dependant::toString);
             return null;
         case EXCL_BY_DEP:
             // Indexing of dependency has already failed.
             if (dontFail) {
                 return collected;
             }
-            logIndexing(resource, () -> String.format(
-                "%s lacks dependencies, thus blocks %s.", resource,
-                dependant));
+            logIndexing(resource, Kind.LACKS_DEPENDENCIES_BLOCKS,
+                dependant::toString);
             return null;
         case NONE:
             // Only the first attempt reports.
-            logIndexing(resource, () -> String.format(
-                "%s is checked as dependency of %s...", resource, dependant));
+            logIndexing(resource, Kind.CHECKING_AS_DEPENDENCY,
+                dependant::toString);
             break;
         default:
             break;
@@ -695,9 +739,8 @@ public class MavenGroupRepository extends ResourcesRepository {
             if (!dontFail) {
                 if (indexingState.replace(resource.archive(),
                     IndexingState.CHECKING, IndexingState.EXCL_BY_DEP)) {
-                    logIndexing(resource, () -> String.format(
-                        "%s lacks dependencies, thus blocks %s.", resource,
-                        dependant));
+                    logIndexing(resource, Kind.LACKS_DEPENDENCIES_BLOCKS,
+                        dependant::toString);
                 }
                 return null;
             }
@@ -716,9 +759,7 @@ public class MavenGroupRepository extends ResourcesRepository {
         } catch (Exception e) {
             reporter.exception(e, "Failed to get dependency of %s: %s",
                 resource, e.getMessage());
-            logIndexing(resource, () -> String.format(
-                "Failed to get dependencies of %s: %s", resource,
-                e.getMessage()));
+            logIndexing(resource, Kind.DEPENDENCIES_FAILED, e::getMessage);
             // Failing to get the dependencies is no reason to fail.
             return Collections.emptyList();
         }
@@ -728,15 +769,37 @@ public class MavenGroupRepository extends ResourcesRepository {
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     private Optional<MavenResource> dependencyToResource(Dependency dep) {
         Program depPgm = Program.valueOf(dep.getGroupId(), dep.getArtifactId());
+        UnresolvableCache unresolvable
+            = indexedRepository.mavenRepository().unresolvableCache();
+        String coordinates = null;
         try {
-            return indexedRepository.mavenRepository().resource(
-                depPgm, narrowVersion(depPgm, MavenVersionSpecification
-                    .from(dep.getVersion())),
-                dep.getType(), dep.getClassifier(),
-                BinaryLocation.REMOTE);
+            MavenVersionSpecification version = narrowVersion(depPgm,
+                MavenVersionSpecification.from(dep.getVersion()));
+            if (version instanceof MavenVersion) {
+                // Only concrete versions are cached, a range may be
+                // satisfied by a version released later.
+                coordinates = depPgm + ":" + dep.getType() + ":"
+                    + dep.getClassifier() + ":" + version;
+            }
+            if (coordinates != null
+                && unresolvable.isUnresolvable(coordinates)) {
+                // Has been reported before.
+                return Optional.empty();
+            }
+            Optional<MavenResource> result = indexedRepository
+                .mavenRepository().resource(depPgm, version, dep.getType(),
+                    dep.getClassifier(), BinaryLocation.REMOTE);
+            if (!result.isPresent() && coordinates != null) {
+                unresolvable.add(coordinates);
+            }
+            return result;
         } catch (Exception e) {
             reporter.exception(e, "Failed to get resource %s: %s",
                 depPgm, e.getMessage());
+            if (coordinates != null && UnresolvableCache.isNotFound(e)) {
+                // Missing, not a (possibly temporary) I/O problem.
+                unresolvable.add(coordinates);
+            }
             // Failing to get a dependency is no reason to fail.
             return Optional.empty();
         }
@@ -769,14 +832,12 @@ public class MavenGroupRepository extends ResourcesRepository {
         try {
             // The ResourcesRepoitory that we inherit from isn't thread safe
             synchronized (this) {
-                add(resource.asResource());
+                add(store().canonical(resource.asResource()));
             }
-            logIndexing(resource,
-                () -> String.format("%s added to index.", resource));
+            logIndexing(resource, Kind.ADDED);
         } catch (Exception e) {
             reporter.exception(e, "Failed to get %s as resource.", resource);
-            logIndexing(resource, () -> String.format(
-                "%s could not be indexed: %s.", resource, e.getMessage()));
+            logIndexing(resource, Kind.NOT_INDEXED, e::getMessage);
         }
     }
 
@@ -795,20 +856,70 @@ public class MavenGroupRepository extends ResourcesRepository {
      * automatically be added to the new repo when the main resource
      * is added (see ResourcesRepository#add(Resource)).
      * 
+     * The lookup uses the index built by {@link #backup(List)}. The
+     * result is made the canonical resource of the archive (see
+     * {@link ResourceStore}) unless the store already has one.
+     * 
      * @param archive
      * @return
      */
     /* package */ Optional<Resource> searchInBackup(Archive archive) {
-        if (backupRepo == null) {
-            return Optional.empty();
+        return Optional.ofNullable(backupByArchive.get(archive.toString()))
+            .map(this::retrieveSupporting).map(store()::canonical);
+    }
+
+    /**
+     * Makes the given resources the backup of this repository. The
+     * resources are indexed by the archive that they have been
+     * created from (see {@link #searchInBackup(Archive)}) and the
+     * resources that provide a "bnd.multirelease" capability are
+     * mapped to the identity and version of the resource that they
+     * support (see {@link #retrieveSupporting(Resource)}). Both
+     * indexes are built in a single pass.
+     *
+     * @param resources the resources
+     */
+    private void backup(List<Resource> resources) {
+        backupRepo = new ResourcesRepository(resources);
+        @SuppressWarnings("PMD.UseConcurrentHashMap")
+        Map<String, Resource> byArchive = new LinkedHashMap<>();
+        @SuppressWarnings("PMD.UseConcurrentHashMap")
+        Map<String, Map<String, Resource>> supporting = new HashMap<>();
+        for (Resource resource : resources) {
+            for (Capability cap : resource.getCapabilities("bnd.info")) {
+                Object from = cap.getAttributes().get("from");
+                if (from != null) {
+                    byArchive.putIfAbsent(from.toString(), resource);
+                }
+            }
+            for (Capability cap : resource
+                .getCapabilities("bnd.multirelease")) {
+                var ident = ResourceUtils.getIdentityCapability(resource);
+                if (ident == null) {
+                    continue;
+                }
+                supporting.computeIfAbsent(supportedKey(
+                    cap.getAttributes().get("bnd.multirelease"),
+                    cap.getAttributes().get(
+                        IdentityNamespace.CAPABILITY_VERSION_ATTRIBUTE)),
+                    key -> new LinkedHashMap<>())
+                    .putIfAbsent(ident.osgi_identity(), resource);
+            }
         }
-        return backupRepo.findProvider(
-            backupRepo.newRequirementBuilder("bnd.info")
-                .addDirective("filter",
-                    String.format("(from=%s)", archive.toString()))
-                .build())
-            .stream().findFirst().map(Capability::getResource)
-            .map(this::retrieveSupporting);
+        backupByArchive = byArchive;
+        backupSupporting = supporting.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey,
+                e -> e.getValue().values()));
+    }
+
+    private void dropBackup() {
+        backupRepo = null;
+        backupByArchive = Collections.emptyMap();
+        backupSupporting = Collections.emptyMap();
+    }
+
+    private static String supportedKey(Object name, Object version) {
+        return name + ":" + version;
     }
 
     /**
@@ -820,52 +931,45 @@ public class MavenGroupRepository extends ResourcesRepository {
      * @return the resource
      */
     private Resource retrieveSupporting(Resource resource) {
-        ResourceBuilder builder = new ResourceBuilder();
-        builder.addResource(resource);
         var ident = ResourceUtils.getIdentityCapability(resource);
         if (ident == null) {
             return resource;
         }
-        var name
-            = ident.getAttributes().get(IdentityNamespace.IDENTITY_NAMESPACE);
-        var version = ident.getAttributes()
-            .get(IdentityNamespace.CAPABILITY_VERSION_ATTRIBUTE);
-        Set<String> known = new HashSet<>();
-        backupRepo.findProvider(
-            backupRepo.newRequirementBuilder("bnd.multirelease")
-                .addDirective("filter",
-                    String.format("(&(bnd.multirelease=%s)(version=%s))", name,
-                        version.toString()))
-                .build())
-            .stream().map(Capability::getResource)
-            .filter(r -> {
-                var forRel = RepoResourceUtils.getIdentityCapability(r)
-                    .getAttributes().get(IdentityNamespace.IDENTITY_NAMESPACE)
-                    .toString();
-                if (known.contains(forRel)) {
-                    return false;
-                }
-                known.add(forRel);
-                return true;
-            })
-            .forEach(builder::addSupportingResource);
+        ResourceBuilder builder = new ResourceBuilder();
+        builder.addResource(resource);
+        backupSupporting.getOrDefault(supportedKey(
+            ident.getAttributes().get(IdentityNamespace.IDENTITY_NAMESPACE),
+            ident.getAttributes()
+                .get(IdentityNamespace.CAPABILITY_VERSION_ATTRIBUTE)),
+            Collections.emptyList()).forEach(builder::addSupportingResource);
         return builder.build();
     }
 
-    private void logIndexing(Revision revision, Supplier<String> msgSupplier) {
-        loggedMessages
-            .computeIfAbsent(revision,
-                rev -> Collections.synchronizedList(new ArrayList<>()))
-            .add(msgSupplier.get());
+    private void logIndexing(Revision revision, Kind kind, Object subject,
+            Supplier<?> related) {
+        IndexingLog log = indexingLog;
+        if (log != null) {
+            log.log(revision, kind, subject,
+                related == null ? null : related.get());
+        }
+    }
+
+    private void logIndexing(Revision revision, Kind kind) {
+        logIndexing(revision, kind, revision, null);
+    }
+
+    private void logIndexing(Archive archive, Kind kind) {
+        logIndexing(archive.revision, kind, archive, null);
     }
 
-    private void logIndexing(Archive archive, Supplier<String> msgSupplier) {
-        logIndexing(archive.revision, msgSupplier);
+    private void logIndexing(MavenResource resource, Kind kind) {
+        logIndexing(resource.archive(), kind);
     }
 
-    private void logIndexing(MavenResource resource,
-            Supplier<String> msgSupplier) {
-        logIndexing(resource.archive(), msgSupplier);
+    private void logIndexing(MavenResource resource, Kind kind,
+            Supplier<?> related) {
+        logIndexing(resource.archive().revision, kind, resource.archive(),
+            related);
     }
 
     /*
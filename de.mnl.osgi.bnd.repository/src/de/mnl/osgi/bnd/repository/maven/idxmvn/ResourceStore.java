@@ -0,0 +1,150 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.idxmvn;
+
+import aQute.maven.api.Archive;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.osgi.resource.Capability;
+import org.osgi.resource.Resource;
+
+/**
+ * Holds the canonical resource for every archive known to an
+ * {@link IndexedMavenRepository}. The group repositories and the
+ * repository's root content reference the resources from this store,
+ * so every archive is represented by a single analyzed resource,
+ * independent of the number of groups that know it and of the
+ * group's role (requested or dependency).
+ * <P>
+ * The resources are held weakly. The store only identifies the
+ * resources referenced by the groups, it doesn't keep resources
+ * that are no longer referenced (e.g. evicted from the caches).
+ */
+/* default */ class ResourceStore {
+
+    private final Map<Archive, ResourceRef> resources
+        = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Resource> collected = new ReferenceQueue<>();
+
+    /**
+     * Returns the archive that the resource has been created from.
+     *
+     * @param resource the resource
+     * @return the archive
+     */
+    /* default */ static Optional<Archive> archiveOf(Resource resource) {
+        for (Capability cap : resource.getCapabilities("bnd.info")) {
+            Object from = cap.getAttributes().get("from");
+            if (from != null) {
+                return Optional.ofNullable(Archive.valueOf(from.toString()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the resource for the given archive if the store
+     * has one.
+     *
+     * @param archive the archive
+     * @return the resource
+     */
+    /* default */ Optional<Resource> get(Archive archive) {
+        expunge();
+        return Optional.ofNullable(resources.get(archive))
+            .map(ResourceRef::get);
+    }
+
+    /**
+     * Returns the canonical representation of the given resource. If
+     * the store has a resource for the archive that the given resource
+     * has been created from, the stored resource is returned. Else, the
+     * given resource is added to the store and returned. Resources
+     * without information about their archive are returned unchanged.
+     *
+     * @param resource the resource
+     * @return the canonical resource
+     */
+    /* default */ Resource canonical(Resource resource) {
+        expunge();
+        return archiveOf(resource).map(archive -> {
+            Resource[] result = new Resource[1];
+            resources.compute(archive, (key, ref) -> {
+                Resource known = ref == null ? null : ref.get();
+                if (known != null) {
+                    result[0] = known;
+                    return ref;
+                }
+                result[0] = resource;
+                return new ResourceRef(key, resource, collected);
+            });
+            return result[0];
+        }).orElse(resource);
+    }
+
+    /**
+     * Removes all resources that are not in the given collection.
+     *
+     * @param used the resources that are still in use
+     */
+    /* default */ void retain(Collection<Resource> used) {
+        Set<Resource> retained
+            = Collections.newSetFromMap(new IdentityHashMap<>());
+        retained.addAll(used);
+        resources.values().removeIf(ref -> !retained.contains(ref.get()));
+    }
+
+    /**
+     * Returns the number of stored resources.
+     *
+     * @return the size
+     */
+    /* default */ int size() {
+        expunge();
+        return resources.size();
+    }
+
+    private void expunge() {
+        Reference<? extends Resource> ref;
+        while ((ref = collected.poll()) != null) {
+            resources.remove(((ResourceRef) ref).archive, ref);
+        }
+    }
+
+    /**
+     * A weak reference to a resource that knows the resource's archive.
+     */
+    private static class ResourceRef extends WeakReference<Resource> {
+        public final Archive archive;
+
+        public ResourceRef(Archive archive, Resource resource,
+                ReferenceQueue<Resource> queue) {
+            super(resource, queue);
+            this.archive = archive;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.nexussearch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Limits the dependencies that are followed when a
+ * {@link LocalMavenBackedOsgiRepository} is refreshed. The setters 
+ * return the limits, thus allowing a fluent usage.
+ */
+public class DependencyLimits {
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private final List<Pattern> includedGroups = new ArrayList<>();
+    private final List<Pattern> excludedGroups = new ArrayList<>();
+    private boolean skipProvided;
+
+    /**
+     * Returns the maximum depth of the followed dependencies. 
+     * Dependencies of the start artifacts have depth 1.
+     *
+     * @return the max depth
+     */
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets the maximum depth of the followed dependencies. Zero
+     * restricts the repository to the start artifacts.
+     *
+     * @param maxDepth the max depth
+     * @return the dependency limits
+     */
+    public DependencyLimits setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Sets the groups of the dependencies that are followed. The 
+     * group ids may contain "*" as wildcard. If no groups are set,
+     * all groups are included.
+     *
+     * @param groups the groups
+     * @return the dependency limits
+     */
+    public DependencyLimits setIncludedGroups(Collection<String> groups) {
+        includedGroups.clear();
+        groups.stream().map(DependencyLimits::toPattern)
+            .forEach(includedGroups::add);
+        return this;
+    }
+
+    /**
+     * Sets the groups of the dependencies that are not followed. The 
+     * group ids may contain "*" as wildcard. Exclusion takes precedence
+     * over inclusion.
+     *
+     * @param groups the groups
+     * @return the dependency limits
+     */
+    public DependencyLimits setExcludedGroups(Collection<String> groups) {
+        excludedGroups.clear();
+        groups.stream().map(DependencyLimits::toPattern)
+            .forEach(excludedGroups::add);
+        return this;
+    }
+
+    private static Pattern toPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Checks if dependencies from the given group are followed.
+     *
+     * @param groupId the group id
+     * @return true, if allowed
+     */
+    public boolean allowsGroup(String groupId) {
+        if (excludedGroups.stream()
+            .anyMatch(pattern -> pattern.matcher(groupId).matches())) {
+            return false;
+        }
+        return includedGroups.isEmpty() || includedGroups.stream()
+            .anyMatch(pattern -> pattern.matcher(groupId).matches());
+    }
+
+    /**
+     * Checks if dependencies are skipped if another revision of the
+     * same program is one of the artifacts that the repository
+     * starts with.
+     *
+     * @return true, if provided programs are skipped
+     */
+    public boolean skipProvided() {
+        return skipProvided;
+    }
+
+    /**
+     * Sets whether dependencies are skipped if another revision of the
+     * same program is one of the artifacts that the repository starts
+     * with (e.g. the artifacts found by a search).
+     *
+     * @param skipProvided whether to skip provided programs
+     * @return the dependency limits
+     */
+    public DependencyLimits setSkipProvided(boolean skipProvided) {
+        this.skipProvided = skipProvided;
+        return this;
+    }
+}
@@ -36,18 +36,27 @@ import aQute.maven.provider.MavenRepository;
 import aQute.maven.provider.MetadataParser;
 import aQute.maven.provider.MetadataParser.RevisionMetadata;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.osgi.resource.Capability;
 import org.osgi.resource.Resource;
 import org.osgi.service.repository.Repository;
 import org.slf4j.Logger;
@@ -66,11 +75,13 @@ public abstract class LocalMavenBackedOsgiRepository
 
     private static final Logger LOG = LoggerFactory.getLogger(
         LocalMavenBackedOsgiRepository.class);
+    /** The default number of revisions processed concurrently. */
+    public static final int DEFAULT_CONCURRENCY
+        = Math.max(4, Runtime.getRuntime().availableProcessors());
     private final String name;
     private final File obrIndexFile;
-    private final Set<Revision> toBeProcessed = new HashSet<>();
-    private final Set<Revision> processing = new HashSet<>();
-    private final Set<Revision> processed = new HashSet<>();
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private DependencyLimits dependencyLimits = new DependencyLimits();
 
     /**
      * Create a new instance that uses the provided information/resources 
@@ -115,6 +126,51 @@ public abstract class LocalMavenBackedOsgiRepository
         return obrIndexFile;
     }
 
+    /**
+     * Return the maximum number of revisions that are processed
+     * concurrently during a refresh.
+     *
+     * @return the concurrency
+     */
+    public int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets the maximum number of revisions that are processed
+     * concurrently during a refresh. Defaults to
+     * {@link #DEFAULT_CONCURRENCY}.
+     *
+     * @param concurrency the concurrency
+     * @return the local maven backed osgi repository
+     */
+    public LocalMavenBackedOsgiRepository setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /**
+     * Returns the limits for following dependencies.
+     *
+     * @return the dependency limits
+     */
+    public DependencyLimits dependencyLimits() {
+        return dependencyLimits;
+    }
+
+    /**
+     * Sets the limits for following dependencies. By default, all
+     * compile and runtime dependencies are followed.
+     *
+     * @param limits the limits
+     * @return the local maven backed osgi repository
+     */
+    public LocalMavenBackedOsgiRepository
+            setDependencyLimits(DependencyLimits limits) {
+        this.dependencyLimits = limits;
+        return this;
+    }
+
     /**
      * Refresh this repository's content.
      * 
@@ -123,41 +179,54 @@ public abstract class LocalMavenBackedOsgiRepository
      */
     public abstract boolean refresh() throws Exception;
 
+    /**
+     * Return the file that holds the dependencies of the revisions
+     * in this repository. Used to avoid evaluating the POMs again 
+     * when refreshing.
+     *
+     * @return the file
+     */
+    protected File dependenciesFile() {
+        return new File(obrIndexFile.getParentFile(),
+            obrIndexFile.getName() + ".deps");
+    }
+
     /**
      * Refresh this repository's content.
+     * <P>
+     * Released revisions don't change. If the current content 
+     * includes the resource for a released revision and the 
+     * dependencies of the revision are known, the resource is 
+     * reused and the revision's dependencies are processed without
+     * accessing the POM or the archive again. Snapshot revisions
+     * are always revalidated. 
      *
      * @param mavenRepository the maven repository
      * @param startArtifacts the collection of artifacts to start with
      * @return true if refreshed, false if not refreshed possibly due to error
      * @throws Exception if a problem occurs
      */
-    public boolean refresh(MavenRepository mavenRepository,
+    public synchronized boolean refresh(MavenRepository mavenRepository,
             Collection<? extends Revision> startArtifacts) throws Exception {
+        // Results from previous run
+        Map<Revision, Resource> knownResources = new HashMap<>();
+        for (Resource resource : getResources()) {
+            Revision revision = revisionOf(resource);
+            if (revision != null && !revision.isSnapshot()) {
+                knownResources.put(revision, resource);
+            }
+        }
+        Map<Revision, List<String>> knownDependencies = loadDependencies();
         set(new HashSet<>()); // Clears this repository
-        toBeProcessed.addAll(startArtifacts);
         // Repository information is obtained from both querying the
         // repositories
         // (provides information about existing repositories) and from executing
         // the query (provides information about actually used repositories).
         Set<Resource> collectedResources
             = Collections.newSetFromMap(new ConcurrentHashMap<>());
-        synchronized (this) {
-            while (true) {
-                if (toBeProcessed.isEmpty() && processing.isEmpty()) {
-                    break;
-                }
-                if (!toBeProcessed.isEmpty() && processing.size() < 4) {
-                    Revision rev = toBeProcessed.iterator().next();
-                    toBeProcessed.remove(rev);
-                    processing.add(rev);
-                    Processor.getScheduledExecutor().submit(
-                        new RevisionProcessor(mavenRepository,
-                            collectedResources, rev));
-                }
-                wait();
-            }
-        }
-        processed.clear();
+        Crawler crawler = new Crawler(mavenRepository, collectedResources,
+            knownResources, knownDependencies);
+        crawler.crawl(startArtifacts).get();
         // Set this repository's content to the results...
         addAll(collectedResources);
         // ... and persist the content.
@@ -165,23 +234,210 @@ public abstract class LocalMavenBackedOsgiRepository
         generator.resources(getResources());
         generator.name(name());
         generator.save(obrIndexFile);
+        saveDependencies(crawler.dependencies);
         return true;
     }
 
+    private static Revision revisionOf(Resource resource) {
+        for (Capability cap : resource.getCapabilities("bnd.info")) {
+            Object from = cap.getAttributes().get("from");
+            if (from != null) {
+                try {
+                    return Revision.valueOf(from.toString());
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Load the dependencies. Every line of the file consists of the
+     * revision followed by its dependencies (specified as 
+     * "groupId:artifactId:version", where version may be a range),
+     * separated by tabs.
+     *
+     * @return the dependencies
+     */
+    private Map<Revision, List<String>> loadDependencies() {
+        Map<Revision, List<String>> result = new HashMap<>();
+        File file = dependenciesFile();
+        if (!file.canRead()) {
+            return result;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath(),
+                StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                Revision revision = Revision.valueOf(parts[0]);
+                if (revision == null) {
+                    continue;
+                }
+                result.put(revision,
+                    Arrays.asList(parts).subList(1, parts.length));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("Cannot read {}, ignored: {}", file, e.getMessage());
+            result.clear();
+        }
+        return result;
+    }
+
+    private void saveDependencies(Map<Revision, List<String>> dependencies)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Revision, List<String>> entry : dependencies
+            .entrySet()) {
+            StringBuilder line = new StringBuilder(entry.getKey().toString());
+            for (String dependency : entry.getValue()) {
+                line.append('\t').append(dependency);
+            }
+            lines.add(line.toString());
+        }
+        Collections.sort(lines);
+        Files.write(dependenciesFile().toPath(), lines,
+            StandardCharsets.UTF_8);
+    }
+
     /**
-     * A callable (allows it to throw an exception) that processes a single
-     * Revision.
+     * Processes the revisions, starting with a given set and continuing
+     * with their dependencies. Every revision is processed once only.
+     * <P>
+     * Revisions waiting to be processed are kept in a queue. Up to
+     * {@link #concurrency()} workers take revisions from the queue
+     * and process them. A worker continues with the next revision
+     * from the queue when it has finished a revision and terminates
+     * when the queue is empty. Adding a revision to the queue starts
+     * a new worker if the limit has not been reached yet.
      */
-    private class RevisionProcessor implements Callable<Void> {
+    private class Crawler {
         private final MavenRepository mavenRepository;
-        private final Revision revision;
         private final Set<Resource> collectedResources;
+        private final Map<Revision, Resource> knownResources;
+        private final Map<Revision, List<String>> knownDependencies;
+        private final Map<Revision, List<String>> dependencies
+            = new ConcurrentHashMap<>();
+        /** The minimum depth at which a revision has been reached. */
+        private final Map<Revision, Integer> visited
+            = new ConcurrentHashMap<>();
+        /** The dependencies of the processed revisions. */
+        private final Map<Revision, List<String>> expanded
+            = new ConcurrentHashMap<>();
+        private final Map<Program, Set<Revision>> provided
+            = new ConcurrentHashMap<>();
+        private final Map<Program, List<RankedRevision>> programRevisions
+            = new ConcurrentHashMap<>();
+        private final Queue<Runnable> pending
+            = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger workers = new AtomicInteger();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final CompletableFuture<Void> done
+            = new CompletableFuture<>();
 
-        public RevisionProcessor(MavenRepository mavenRepository,
-                Set<Resource> collectedResources, Revision revision) {
+        public Crawler(MavenRepository mavenRepository,
+                Set<Resource> collectedResources,
+                Map<Revision, Resource> knownResources,
+                Map<Revision, List<String>> knownDependencies) {
             this.mavenRepository = mavenRepository;
             this.collectedResources = collectedResources;
-            this.revision = revision;
+            this.knownResources = knownResources;
+            this.knownDependencies = knownDependencies;
+        }
+
+        /**
+         * Start with the given revisions.
+         *
+         * @param revisions the revisions
+         * @return a future that completes when all revisions and their
+         * dependencies have been processed
+         */
+        public CompletableFuture<Void> crawl(
+                Collection<? extends Revision> revisions) {
+            for (Revision revision : revisions) {
+                provided.computeIfAbsent(revision.program,
+                    program -> ConcurrentHashMap.newKeySet()).add(revision);
+            }
+            // Prevent completion while adding the start revisions.
+            outstanding.incrementAndGet();
+            for (Revision revision : revisions) {
+                enqueue(revision, 0);
+            }
+            finished();
+            return done;
+        }
+
+        /**
+         * Records that the revision has been reached at the given depth.
+         * If the revision hasn't been reached before, it is scheduled
+         * for processing. If it has been reached before at a greater
+         * depth and has already been processed, its dependencies are
+         * added again with the reduced depth. The set of revisions
+         * found is thus independent of the order of processing.
+         *
+         * @return true, if the revision is new
+         */
+        private boolean enqueue(Revision revision, int depth) {
+            while (true) {
+                Integer known = visited.putIfAbsent(revision, depth);
+                if (known == null) {
+                    schedule(() -> process(revision));
+                    return true;
+                }
+                if (known <= depth) {
+                    return false;
+                }
+                if (visited.replace(revision, known, depth)) {
+                    break;
+                }
+            }
+            // If not yet processed, processing uses the reduced depth.
+            List<String> deps = expanded.get(revision);
+            if (deps != null) {
+                schedule(() -> addDependencies(deps, depth + 1));
+            }
+            return false;
+        }
+
+        private void schedule(Runnable task) {
+            outstanding.incrementAndGet();
+            pending.add(task);
+            startWorkers();
+        }
+
+        private void finished() {
+            if (outstanding.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        }
+
+        private void startWorkers() {
+            while (!pending.isEmpty()) {
+                int running = workers.get();
+                if (running >= concurrency) {
+                    return;
+                }
+                if (workers.compareAndSet(running, running + 1)) {
+                    Processor.getExecutor().execute(this::work);
+                }
+            }
+        }
+
+        private void work() {
+            try {
+                Runnable task;
+                while ((task = pending.poll()) != null) {
+                    try {
+                        task.run();
+                    } finally {
+                        finished();
+                    }
+                }
+            } finally {
+                workers.decrementAndGet();
+            }
+            // Revision may have been added after poll returned null.
+            startWorkers();
         }
 
         /**
@@ -189,114 +445,180 @@ public abstract class LocalMavenBackedOsgiRepository
          * to be processed (unless processed already) and create an entry
          * for the resource in this repository.
          */
-        @Override
-        public Void call() throws Exception {
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        private void process(Revision revision) {
             try {
-                // Get and add this revision's OSGi information (refreshes
-                // snapshots)
-                Archive archive = mavenRepository.getResolvedArchive(revision,
-                    Archive.JAR_EXTENSION, "");
-                if (archive != null) {
-                    if (archive.isSnapshot()) {
-                        for (MavenBackingRepository mbr : mavenRepository
-                            .getSnapshotRepositories()) {
-                            if (mbr.getVersion(archive.getRevision()) != null) {
-                                // Found backing repository
-                                File metaFile = mavenRepository.toLocalFile(
-                                    revision.metadata(mbr.getId()));
-                                RevisionMetadata metaData
-                                    = MetadataParser.parseRevisionMetadata(
-                                        metaFile);
-                                File archiveFile
-                                    = mavenRepository.toLocalFile(archive);
-                                if (archiveFile
-                                    .lastModified() < metaData.lastUpdated) {
-                                    archiveFile.delete();
-                                }
-                                File pomFile = mavenRepository
-                                    .toLocalFile(archive.getPomArchive());
-                                if (pomFile
-                                    .lastModified() < metaData.lastUpdated) {
-                                    pomFile.delete();
-                                }
-                                break;
+                processRevision(revision);
+            } catch (Exception e) {
+                LOG.error("Failed to process " + revision + ".", e);
+            }
+        }
+
+        private void processRevision(Revision revision) throws Exception {
+            // Released revisions don't change, reuse previous results.
+            Resource known = knownResources.get(revision);
+            List<String> knownDeps = knownDependencies.get(revision);
+            if (known != null && knownDeps != null) {
+                collectedResources.add(known);
+                dependencies.put(revision, knownDeps);
+                expand(revision, knownDeps);
+                return;
+            }
+            // Get and add this revision's OSGi information (refreshes
+            // snapshots)
+            Archive archive = mavenRepository.getResolvedArchive(revision,
+                Archive.JAR_EXTENSION, "");
+            if (archive != null) {
+                if (archive.isSnapshot()) {
+                    for (MavenBackingRepository mbr : mavenRepository
+                        .getSnapshotRepositories()) {
+                        if (mbr.getVersion(archive.getRevision()) != null) {
+                            // Found backing repository
+                            File metaFile = mavenRepository.toLocalFile(
+                                revision.metadata(mbr.getId()));
+                            RevisionMetadata metaData
+                                = MetadataParser.parseRevisionMetadata(
+                                    metaFile);
+                            File archiveFile
+                                = mavenRepository.toLocalFile(archive);
+                            if (archiveFile
+                                .lastModified() < metaData.lastUpdated) {
+                                archiveFile.delete();
                             }
+                            File pomFile = mavenRepository
+                                .toLocalFile(archive.getPomArchive());
+                            if (pomFile
+                                .lastModified() < metaData.lastUpdated) {
+                                pomFile.delete();
+                            }
+                            break;
                         }
                     }
-                    // Get POM for dependencies
-                    IPom pom = mavenRepository.getPom(archive.getRevision());
-                    if (pom != null) {
-                        // Get pom and add all dependencies as to be processed.
-                        addDependencies(pom);
-                    }
-                    Resource resource = parseResource(archive);
-                    if (resource != null) {
-                        collectedResources.add(resource);
-                    }
                 }
-                return null;
-            } finally {
-                // We're done witht his revision.
-                synchronized (LocalMavenBackedOsgiRepository.this) {
-                    processing.remove(revision);
-                    processed.add(revision);
-                    LocalMavenBackedOsgiRepository.this.notifyAll();
+                // Get POM for dependencies
+                IPom pom = mavenRepository.getPom(archive.getRevision());
+                if (pom != null) {
+                    // Get pom and add all dependencies as to be processed.
+                    addDependencies(revision, pom);
+                }
+                Resource resource = parseResource(archive);
+                if (resource != null) {
+                    collectedResources.add(resource);
                 }
             }
         }
 
-        private void addDependencies(IPom pom) {
+        private void addDependencies(Revision revision, IPom pom) {
+            List<String> deps = new ArrayList<>();
             try {
-                Map<Program, Dependency> deps = new LinkedHashMap<>();
-                deps.putAll(pom.getDependencies(MavenScope.compile, false));
-                deps.putAll(pom.getDependencies(MavenScope.runtime, false));
-                synchronized (LocalMavenBackedOsgiRepository.this) {
-                    for (Map.Entry<Program, Dependency> entry : deps
-                        .entrySet()) {
-                        bindToVersion(entry.getValue());
-                        try {
-                            Revision rev = entry.getValue().getRevision();
-                            if (!toBeProcessed.contains(rev)
-                                && !processing.contains(rev)
-                                && !processed.contains(rev)) {
-                                toBeProcessed.add(rev);
-                                LOG.debug("Added as dependency {}", rev);
-                            }
-                            LocalMavenBackedOsgiRepository.this.notifyAll();
-                        } catch (Exception e) {
-                            LOG.warn("Unbindable dependency {}",
-                                entry.getValue().toString());
-                            continue;
-                        }
+                Map<Program, Dependency> byProgram = new LinkedHashMap<>();
+                byProgram.putAll(
+                    pom.getDependencies(MavenScope.compile, false));
+                byProgram.putAll(
+                    pom.getDependencies(MavenScope.runtime, false));
+                for (Dependency dependency : byProgram.values()) {
+                    if (dependency.version == null) {
+                        LOG.warn("Unbindable dependency {}", dependency);
+                        continue;
                     }
+                    deps.add(dependency.program.group + ":"
+                        + dependency.program.artifact + ":"
+                        + dependency.version);
                 }
             } catch (Exception e) {
                 LOG.error("Failed to get POM of " + revision + ".", e);
+                return;
             }
+            if (!revision.isSnapshot()) {
+                dependencies.put(revision, deps);
+            }
+            expand(revision, deps);
         }
 
-        private void bindToVersion(Dependency dependency) throws Exception {
-            if (MavenVersionRange.isRange(dependency.version)) {
-
-                MavenVersionRange range
-                    = new MavenVersionRange(dependency.version);
-                List<Revision> revisions
-                    = mavenRepository.getRevisions(dependency.program);
+        /**
+         * Adds the dependencies of a processed revision. The dependencies
+         * are recorded before the depth is looked up, see
+         * {@link #enqueue(Revision, int)}.
+         */
+        private void expand(Revision revision, List<String> deps) {
+            expanded.put(revision, deps);
+            addDependencies(deps, visited.get(revision) + 1);
+        }
 
-                for (Iterator<Revision> it = revisions.iterator();
-                        it.hasNext();) {
-                    Revision rev = it.next();
-                    if (!range.includes(rev.version)) {
-                        it.remove();
+        /**
+         * Adds the dependencies (with the given depth) as to be processed
+         * unless excluded by the {@link DependencyLimits}.
+         */
+        private void addDependencies(List<String> deps, int depth) {
+            if (depth > dependencyLimits.maxDepth()) {
+                return;
+            }
+            for (String dependency : deps) {
+                try {
+                    String[] coords = dependency.split(":", 3);
+                    if (!dependencyLimits.allowsGroup(coords[0])) {
+                        LOG.debug("Skipped dependency {} (group)",
+                            dependency);
+                        continue;
+                    }
+                    Revision rev = bindToVersion(
+                        Program.valueOf(coords[0], coords[1]), coords[2]);
+                    Set<Revision> others = provided.get(rev.program);
+                    if (dependencyLimits.skipProvided() && others != null
+                        && !others.contains(rev)) {
+                        LOG.debug("Skipped dependency {} (provided by {})",
+                            rev, others);
+                        continue;
                     }
+                    if (enqueue(rev, depth)) {
+                        LOG.debug("Added as dependency {}", rev);
+                    }
+                } catch (Exception e) {
+                    LOG.warn("Unbindable dependency {}", dependency);
                 }
+            }
+        }
 
-                if (!revisions.isEmpty()) {
-                    Collections.sort(revisions, new MavenRevisionComparator());
-                    Revision highest = revisions.get(revisions.size() - 1);
-                    dependency.version = highest.version.toString();
+        /**
+         * Binds the version to a revision. If the version is a range,
+         * the highest available revision in the range is used. The
+         * available revisions of a program are obtained only once
+         * during a refresh.
+         */
+        private Revision bindToVersion(Program program, String version)
+                throws Exception {
+            if (MavenVersionRange.isRange(version)) {
+                MavenVersionRange range = new MavenVersionRange(version);
+                // Not obtained in computeIfAbsent, this may take some time.
+                List<RankedRevision> revisions = programRevisions.get(program);
+                if (revisions == null) {
+                    revisions = rankedRevisions(program);
+                    List<RankedRevision> known
+                        = programRevisions.putIfAbsent(program, revisions);
+                    if (known != null) {
+                        revisions = known;
+                    }
+                }
+                for (RankedRevision ranked : revisions) {
+                    if (range.includes(ranked.revision.version)) {
+                        return ranked.revision;
+                    }
                 }
             }
+            return program.version(version);
+        }
+
+        /**
+         * Returns the program's revisions, highest first.
+         */
+        private List<RankedRevision> rankedRevisions(Program program)
+                throws Exception {
+            List<RankedRevision> result = new ArrayList<>();
+            for (Revision revision : mavenRepository.getRevisions(program)) {
+                result.add(new RankedRevision(revision));
+            }
+            result.sort(Comparator.reverseOrder());
+            return result;
         }
 
         private Resource parseResource(Archive archive) throws Exception {
@@ -314,20 +636,33 @@ public abstract class LocalMavenBackedOsgiRepository
 
     }
 
-    public class MavenRevisionComparator implements Comparator<Revision> {
+    /**
+     * A revision with its precomputed comparable version.
+     */
+    protected static class RankedRevision
+            implements Comparable<RankedRevision> {
+        public final Revision revision;
+        public final ComparableVersion version;
+
+        public RankedRevision(Revision revision) {
+            this.revision = revision;
+            version = new ComparableVersion(revision.version.toString());
+        }
+
         @Override
-        public int compare(Revision rev1, Revision rev2) {
-            int res = rev1.program.compareTo(rev2.program);
-            if (res != 0) {
-                return res;
-            }
+        public int compareTo(RankedRevision other) {
+            return version.compareTo(other.version);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RankedRevision
+                && revision.equals(((RankedRevision) obj).revision);
+        }
 
-            ComparableVersion rev1ver
-                = new ComparableVersion(rev1.version.toString());
-            ComparableVersion rev2ver
-                = new ComparableVersion(rev2.version.toString());
-            return rev1ver.compareTo(rev2ver);
+        @Override
+        public int hashCode() {
+            return revision.hashCode();
         }
     }
-
 }
@@ -75,11 +75,131 @@ public interface NexusSearchConfiguration {
 	 */
 	int searchBreadth(int dflt);
 
+	/**
+	 * The maximum depth of the followed dependencies. Dependencies
+	 * of the artifacts found by the query have depth 1.
+	 * 
+	 * @param dflt the default value
+	 * @return the result
+	 */
+	int maxDepth(int dflt);
+
+	/**
+	 * Comma separated list of the group ids of dependencies that are 
+	 * followed. The group ids may contain "*" as wildcard.
+	 * Defaults to all groups.
+	 * 
+	 * @return the result
+	 */
+	String includeGroups();
+
+	/**
+	 * Comma separated list of the group ids of dependencies that are 
+	 * not followed. The group ids may contain "*" as wildcard.
+	 * 
+	 * @return the result
+	 */
+	String excludeGroups();
+
+	/**
+	 * If set, dependencies are not followed if another revision of
+	 * the same artifact is already part of the repository.
+	 * 
+	 * @return the result
+	 */
+	boolean skipProvided();
+
 	/** 
-	 * Number of artfacts to return in one query.
+	 * Number of artfacts to return in one query. This is the initial
+	 * value, the chunk size is increased if the server responds fast
+	 * and decreased if the server reports too many results.
 	 * 
 	 * @param dflt the default value
 	 * @return the result
 	 */
 	int chunkSize(int dflt);
+
+	/**
+	 * The time in seconds that the responses from the Nexus server
+	 * are used without revalidation. Zero disables caching.
+	 * <P>
+	 * Cached responses are revalidated by comparing only the total
+	 * number of results. If a version has been removed and another
+	 * one has been published in the meantime, the outdated responses
+	 * continue to be used. Set this to zero (or delete the cache
+	 * directory) to force all responses to be fetched again.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int searchCacheTtl(int deflt);
+
+	/**
+	 * The timeout in milliseconds for establishing a connection.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int connectTimeout(int deflt);
+
+	/**
+	 * The timeout in milliseconds for a request.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int requestTimeout(int deflt);
+
+	/**
+	 * The number of retries of a failed request.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int retries(int deflt);
+
+	/**
+	 * The delay in milliseconds before the first retry of a failed
+	 * request.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int retryDelay(int deflt);
+
+	/**
+	 * The number of consecutive failed requests after which a host
+	 * is considered unavailable.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int failureThreshold(int deflt);
+
+	/**
+	 * The time in milliseconds that a host is considered unavailable
+	 * before a request is sent to it again.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int unavailableDelay(int deflt);
+
+	/**
+	 * The maximum number of concurrent requests to the Nexus server.
+	 * Also limits the number of artifacts that are resolved
+	 * concurrently when the repository is refreshed.
+	 *
+	 * @param deflt the default value
+	 * @return the result
+	 */
+	int maxConnections(int deflt);
+
+	/**
+	 * If set, the queries are sent using the JDK's HTTP client,
+	 * which supports HTTP/2.
+	 *
+	 * @return true, if HTTP/2 is to be used
+	 */
+	boolean http2();
 }
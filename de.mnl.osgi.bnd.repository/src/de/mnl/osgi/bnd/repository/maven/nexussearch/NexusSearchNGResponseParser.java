@@ -21,210 +21,175 @@ package de.mnl.osgi.bnd.repository.maven.nexussearch;
 import aQute.maven.api.Program;
 import aQute.maven.api.Revision;
 import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Parses the XML document returned by a Nexus server in response to a
  * <code>lucene/search</code> request.
  */
 public class NexusSearchNGResponseParser {
-    private static final Logger logger = LoggerFactory.getLogger(
-        NexusSearchNGResponseParser.class);
-    private Set<Revision> artifacts
-        = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    private Map<String, RepoInfo> repoInfos = new ConcurrentHashMap<>();
+    private static final XMLInputFactory INPUT_FACTORY
+        = XMLInputFactory.newInstance();
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
 
     /**
-     * Returns the reported snapshot repositories.
-     * 
-     * @return the result
-     * @throws MalformedURLException if the URL is malformed
-     */
-    public Set<URL> snapshotRepositories() throws MalformedURLException {
-        Set<URL> result = new HashSet<>();
-        Iterator<RepoInfo> itr = repoInfos.values().stream().filter(
-            ri -> ri.referenced && ri.repoPolicy == RepoPolicy.Snapshot)
-            .iterator();
-        while (itr.hasNext()) {
-            result.add(itr.next().contentResourceUri.toURL());
-        }
-        return result;
-    }
-
-    /**
-     * Returns the reported release repositories.
-     * 
-     * @return the result
-     * @throws MalformedURLException if the URL is malformed
-     */
-    public Set<URL> releaseRepositories() throws MalformedURLException {
-        Set<URL> result = new HashSet<>();
-        Iterator<RepoInfo> itr = repoInfos.values().stream().filter(
-            ri -> ri.referenced && ri.repoPolicy == RepoPolicy.Release)
-            .iterator();
-        while (itr.hasNext()) {
-            result.add(itr.next().contentResourceUri.toURL());
-        }
-        return result;
-    }
-
-    /**
-     * Returns the reported artifacts.
-     * 
-     * @return the result
-     */
-    public Set<Revision> artifacts() {
-        return Collections.unmodifiableSet(artifacts);
-    }
-
-    /**
-     * Parse the result return from the Nexus server. The outcome will be reflected in
-     * the attributes.
+     * Parse the result return from the Nexus server. The outcome is
+     * returned as a new {@link ParseResult}. The parser doesn't maintain
+     * state derived from the results, it may be used to parse several
+     * responses concurrently. Use {@link NexusSearchResults} to combine
+     * the results.
      *
      * @param in the stream with result data
      * @return the parse result
      * @throws Exception if a problem occurs
      */
     public ParseResult parse(InputStream in) throws Exception {
-        XMLEventReader eventReader = XMLInputFactory.newInstance()
-            .createXMLEventReader(in);
-        ParseResult result = new ParseResult();
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                StartElement startElement = event.asStartElement();
-                switch (startElement.getName().getLocalPart()) {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            ParseResult result = new ParseResult();
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
                 case "totalCount":
-                    result.totalCount = Integer
-                        .parseInt(parseCharacters(eventReader));
+                    result.totalCount
+                        = Integer.parseInt(reader.getElementText().trim());
                     break;
                 case "from":
-                    result.from = Integer
-                        .parseInt(parseCharacters(eventReader));
+                    result.from
+                        = Integer.parseInt(reader.getElementText().trim());
                     break;
                 case "count":
-                    result.count = Integer
-                        .parseInt(parseCharacters(eventReader));
+                    result.count
+                        = Integer.parseInt(reader.getElementText().trim());
                     break;
                 case "tooManyResults":
                     result.tooManyResults = Boolean
-                        .parseBoolean(parseCharacters(eventReader));
+                        .parseBoolean(reader.getElementText().trim());
                     break;
                 // Repositories (item by item)
                 case "repositories-item":
-                    parseRepositoryData(eventReader);
+                    parseRepositoryData(reader, result);
                     break;
                 // Repository definitions
                 case "org.sonatype.nexus.rest.model.NexusNGRepositoryDetail":
-                    parseRepositoryDetail(eventReader);
+                    skipElement(reader);
                     break;
                 // Artifacts
                 case "artifact":
-                    parseArtifact(eventReader);
+                    parseArtifact(reader, result);
                     result.artifactsInResult += 1;
                     break;
+                default:
+                    break;
                 }
             }
+            return result;
+        } finally {
+            reader.close();
         }
-        return result;
     }
 
     /**
-     * Parse a repository detail section. The results are added to attributes
-     * {@link #snapshotRepositories} and {@link #releaseRepositories} 
+     * Parse a repository data section. The result is added to 
+     * {@link ParseResult#repositories}. 
      * 
-     * @param eventReader
+     * @param reader the input, positioned at the start element
+     * @param result the result
      * @throws Exception
      */
-    private void parseRepositoryData(XMLEventReader eventReader)
-            throws Exception {
+    private void parseRepositoryData(XMLStreamReader reader,
+            ParseResult result) throws Exception {
         RepoInfo repoInfo = new RepoInfo();
         boolean skip = true;
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isEndElement() && event.asEndElement().getName()
-                .getLocalPart().equals("repositories-item")) {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT
+                && reader.getLocalName().equals("repositories-item")) {
                 if (!skip && repoInfo.repoPolicy != RepoPolicy.Unknown) {
-                    repoInfos.put(repoInfo.id, repoInfo);
+                    result.repositories.add(repoInfo);
                 }
                 break;
             }
-            if (event.isStartElement()) {
-                switch (event.asStartElement().getName().getLocalPart()) {
-                case "id":
-                    repoInfo.id = parseCharacters(eventReader);
-                    break;
-                case "contentResourceURI":
-                    repoInfo.contentResourceUri
-                        = new URI(parseCharacters(eventReader));
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+            case "id":
+                repoInfo.id = intern(reader.getElementText());
+                break;
+            case "contentResourceURI":
+                repoInfo.contentResourceUri = new URI(reader.getElementText());
+                break;
+            case "format":
+                if (reader.getElementText().equals("maven2")) {
+                    skip = false;
+                }
+                break;
+            case "repoPolicy":
+                switch (reader.getElementText()) {
+                case "SNAPSHOT":
+                    repoInfo.repoPolicy = RepoPolicy.Snapshot;
                     break;
-                case "format":
-                    if (parseCharacters(eventReader).equals("maven2")) {
-                        skip = false;
-                    }
+                case "RELEASE":
+                    repoInfo.repoPolicy = RepoPolicy.Release;
                     break;
-                case "repoPolicy":
-                    switch (parseCharacters(eventReader)) {
-                    case "SNAPSHOT":
-                        repoInfo.repoPolicy = RepoPolicy.Snapshot;
-                        break;
-                    case "RELEASE":
-                        repoInfo.repoPolicy = RepoPolicy.Release;
-                        break;
-                    }
+                default:
                     break;
                 }
+                break;
+            default:
+                break;
             }
         }
     }
 
     /**
-     * Parse a repository detail section. The results are added to attributes
-     * {@link #snapshotRepositories} and {@link #releaseRepositories} 
+     * Skip the element that the reader is positioned at (including
+     * all nested elements).
      * 
-     * @param eventReader
-     * @throws Exception
+     * @param reader the input, positioned at the start element
+     * @throws XMLStreamException
      */
-    private void parseRepositoryDetail(XMLEventReader eventReader)
-            throws Exception {
-        boolean skip = false;
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isEndElement() && event.asEndElement().getName()
-                .getLocalPart().equals(
-                    "org.sonatype.nexus.rest.model.NexusNGRepositoryDetail")) {
+    private void skipElement(XMLStreamReader reader)
+            throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                depth += 1;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                depth -= 1;
+                break;
+            default:
                 break;
             }
         }
-        if (skip) {
-            return;
-        }
     }
 
     /**
-     * Parse an artifact description and return the result as a 
-     * set of {@link Revision}s.
+     * Parse an artifact description and add the result to 
+     * {@link ParseResult#artifacts}. The ids of the repositories that
+     * hold the artifact are added to 
+     * {@link ParseResult#referencedRepositories}.
      * 
-     * @param eventReader the input
-     * @return the result
+     * @param reader the input, positioned at the start element
+     * @param result the result
      * @throws XMLStreamException 
      */
-    private void parseArtifact(XMLEventReader eventReader)
+    private void parseArtifact(XMLStreamReader reader, ParseResult result)
             throws XMLStreamException {
         String groupId = null;
         String artifactId = null;
@@ -232,14 +197,14 @@ public class NexusSearchNGResponseParser {
         boolean foundClassifierInArtifactLink = false;
         boolean foundBinJar = false;
 
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isEndElement()) {
-                switch (event.asEndElement().getName().getLocalPart()) {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getLocalName()) {
                 case "artifact":
                     if (foundBinJar) {
-                        artifacts.add(Program.valueOf(groupId, artifactId)
-                            .version(version));
+                        result.artifacts.add(Program
+                            .valueOf(groupId, artifactId).version(version));
                     }
                     return;
                 case "artifactLink":
@@ -247,67 +212,81 @@ public class NexusSearchNGResponseParser {
                         foundBinJar = true;
                     }
                     break;
-                }
-            }
-            if (event.isStartElement()) {
-                switch (event.asStartElement().getName().getLocalPart()) {
-                case "repositoryId":
-                    String repositoryId = parseCharacters(eventReader);
-                    RepoInfo info = repoInfos.get(repositoryId);
-                    if (info == null) {
-                        logger.warn("Inconsistent search result: reference to "
-                            + "non-existant repository with id " + repositoryId
-                            + ".");
-                        break;
-                    }
-                    info.referenced = true;
-                    break;
-                case "groupId":
-                    groupId = parseCharacters(eventReader);
-                    break;
-                case "artifactId":
-                    artifactId = parseCharacters(eventReader);
-                    break;
-                case "version":
-                    version = parseCharacters(eventReader);
-                    break;
-                case "artifactLink":
-                    foundClassifierInArtifactLink = false;
-                    break;
-                case "classifier":
-                    foundClassifierInArtifactLink = true;
+                default:
                     break;
                 }
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+            case "repositoryId":
+                result.referencedRepositories
+                    .add(intern(reader.getElementText()));
+                break;
+            case "groupId":
+                groupId = intern(reader.getElementText());
+                break;
+            case "artifactId":
+                artifactId = reader.getElementText();
+                break;
+            case "version":
+                version = reader.getElementText();
+                break;
+            case "artifactLink":
+                foundClassifierInArtifactLink = false;
+                break;
+            case "classifier":
+                foundClassifierInArtifactLink = true;
+                break;
+            default:
+                break;
             }
         }
     }
 
-    private String parseCharacters(XMLEventReader eventReader)
-            throws XMLStreamException {
-        StringBuilder sb = new StringBuilder();
-        while (eventReader.peek().isCharacters()) {
-            XMLEvent event = eventReader.nextEvent();
-            sb.append(event.asCharacters().getData());
-        }
-        return sb.toString();
+    /**
+     * Returns a canonical representation of the given string. Repository
+     * ids and group ids are repeated many times in a search result.
+     * The canonical representations are shared by all responses parsed
+     * with this parser.
+     *
+     * @param value the value
+     * @return the canonical representation
+     */
+    private String intern(String value) {
+        String known = strings.putIfAbsent(value, value);
+        return known == null ? value : known;
     }
 
-    private enum RepoPolicy {
+    /**
+     * The repository policy.
+     */
+    public enum RepoPolicy {
         Unknown, Snapshot, Release
     }
 
-    private class RepoInfo {
+    /**
+     * The information about a repository.
+     */
+    public static class RepoInfo {
         public String id;
         public RepoPolicy repoPolicy = RepoPolicy.Unknown;
         public URI contentResourceUri;
-        boolean referenced = false;
     }
 
-    public class ParseResult {
+    /**
+     * The result from parsing a single response.
+     */
+    public static class ParseResult {
         public int totalCount;
         public int from;
         public int count;
         public boolean tooManyResults;
         public int artifactsInResult;
+        public final List<RepoInfo> repositories = new ArrayList<>();
+        public final Set<Revision> artifacts = new HashSet<>();
+        public final Set<String> referencedRepositories = new HashSet<>();
     }
 }
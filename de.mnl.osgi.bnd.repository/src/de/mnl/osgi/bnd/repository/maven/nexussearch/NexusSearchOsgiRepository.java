@@ -23,25 +23,38 @@ import aQute.bnd.osgi.Processor;
 import aQute.bnd.osgi.repository.XMLResourceParser;
 import aQute.lib.strings.Strings;
 import aQute.maven.api.IMavenRepo;
+import aQute.maven.api.Program;
 import aQute.maven.api.Revision;
 import aQute.maven.provider.MavenBackingRepository;
 import aQute.maven.provider.MavenRepository;
 import aQute.service.reporter.Reporter;
+import de.mnl.osgi.bnd.maven.HttpSettings;
+import de.mnl.osgi.bnd.maven.HttpTransport;
+import de.mnl.osgi.bnd.maven.PooledMavenRepository;
 import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchNGResponseParser.ParseResult;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
@@ -62,6 +75,17 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(
         NexusSearchOsgiRepository.class);
+    /** The minimum number of artifacts requested in one query. */
+    public static final int MIN_CHUNK_SIZE = 10;
+    /** The maximum chunk size as multiple of the configured size. */
+    public static final int MAX_CHUNK_FACTOR = 8;
+    /** Responses received faster increase the chunk size. */
+    public static final Duration FAST_RESPONSE = Duration.ofSeconds(2);
+    /** The default time that cached search results are used. */
+    public static final Duration DEFAULT_SEARCH_CACHE_TTL
+        = Duration.ofMinutes(10);
+    private static final String REPOSITORIES_PATH
+        = "service/local/repositories";
     private URL server;
     private String queryString;
     private int searchBreadth;
@@ -70,7 +94,9 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
     private File mvnReposFile;
     private Reporter reporter;
     private HttpClient client;
+    private HttpTransport transport;
     private MavenRepository mavenRepository;
+    private SearchCache searchCache;
 
     /**
      * Create a new instance that uses the provided information/resources to perform
@@ -93,6 +119,92 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
             int searchBreadth,
             int chunkSize, Reporter reporter, HttpClient client)
             throws Exception {
+        this(name, server, localRepo, obrIndexFile, mvnResposFile, queryString,
+            searchBreadth, chunkSize, reporter, client, new HttpSettings());
+    }
+
+    /**
+     * Create a new instance that uses the provided information/resources to perform
+     * its work.
+     *
+     * @param name the name
+     * @param server the url of the Nexus server
+     * @param localRepo the local Maven repository (cache)
+     * @param obrIndexFile the persistent representation of this repository's content
+     * @param mvnResposFile the mvn respos file
+     * @param queryString the query string
+     * @param searchBreadth the search breadth
+     * @param chunkSize the chunk size
+     * @param reporter a reporter for reporting the progress
+     * @param client an HTTP client for obtaining information from the Nexus server
+     * @param httpSettings the settings for querying the Nexus server
+     * @throws Exception if a problem occurs
+     */
+    public NexusSearchOsgiRepository(String name, URL server, File localRepo,
+            File obrIndexFile, File mvnResposFile, String queryString,
+            int searchBreadth, int chunkSize, Reporter reporter,
+            HttpClient client, HttpSettings httpSettings) throws Exception {
+        this(name, server, localRepo, obrIndexFile, mvnResposFile, queryString,
+            searchBreadth, chunkSize, reporter, client, httpSettings,
+            new DependencyLimits());
+    }
+
+    /**
+     * Create a new instance that uses the provided information/resources to perform
+     * its work.
+     *
+     * @param name the name
+     * @param server the url of the Nexus server
+     * @param localRepo the local Maven repository (cache)
+     * @param obrIndexFile the persistent representation of this repository's content
+     * @param mvnResposFile the mvn respos file
+     * @param queryString the query string
+     * @param searchBreadth the search breadth
+     * @param chunkSize the chunk size
+     * @param reporter a reporter for reporting the progress
+     * @param client an HTTP client for obtaining information from the Nexus server
+     * @param httpSettings the settings for querying the Nexus server
+     * @param dependencyLimits the limits for following dependencies
+     * @throws Exception if a problem occurs
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public NexusSearchOsgiRepository(String name, URL server, File localRepo,
+            File obrIndexFile, File mvnResposFile, String queryString,
+            int searchBreadth, int chunkSize, Reporter reporter,
+            HttpClient client, HttpSettings httpSettings,
+            DependencyLimits dependencyLimits) throws Exception {
+        this(name, server, localRepo, obrIndexFile, mvnResposFile, queryString,
+            searchBreadth, chunkSize, reporter, client, httpSettings,
+            dependencyLimits, DEFAULT_SEARCH_CACHE_TTL);
+    }
+
+    /**
+     * Create a new instance that uses the provided information/resources to perform
+     * its work.
+     *
+     * @param name the name
+     * @param server the url of the Nexus server
+     * @param localRepo the local Maven repository (cache)
+     * @param obrIndexFile the persistent representation of this repository's content
+     * @param mvnResposFile the mvn respos file
+     * @param queryString the query string
+     * @param searchBreadth the search breadth
+     * @param chunkSize the chunk size
+     * @param reporter a reporter for reporting the progress
+     * @param client an HTTP client for obtaining information from the Nexus server
+     * @param httpSettings the settings for querying the Nexus server
+     * @param dependencyLimits the limits for following dependencies
+     * @param searchCacheTtl the time that the responses from the Nexus
+     * server are used without revalidation, zero disables caching
+     * @throws Exception if a problem occurs
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public NexusSearchOsgiRepository(String name, URL server, File localRepo,
+            File obrIndexFile, File mvnResposFile, String queryString,
+            int searchBreadth, int chunkSize, Reporter reporter,
+            HttpClient client, HttpSettings httpSettings,
+            DependencyLimits dependencyLimits, Duration searchCacheTtl)
+            throws Exception {
         super(name, obrIndexFile);
         this.server = server;
         this.queryString = queryString;
@@ -102,6 +214,10 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
         this.mvnReposFile = mvnResposFile;
         this.reporter = reporter;
         this.client = client;
+        this.transport = new HttpTransport(client, httpSettings);
+        setConcurrency(httpSettings.maxConnections());
+        setDependencyLimits(dependencyLimits);
+        searchCache = new SearchCache(searchCacheDir(), searchCacheTtl);
 
         // load results from previous execution.
         mavenRepository = restoreRepository();
@@ -142,19 +258,48 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
                 do {
                     event = xmlIn.nextEvent();
                 } while (event.getEventType() != XMLStreamConstants.CHARACTERS);
-                backers.addAll(MavenBackingRepository.create(
+                backers.addAll(PooledMavenRepository.backingRepositories(
                     event.asCharacters().getData(), reporter, localRepo,
                     client));
                 break;
             }
         }
         xmlIn.close();
-        return new MavenRepository(localRepo, name(),
+        return new PooledMavenRepository(localRepo, name(),
             releaseBackers, snapshotBackers, Processor.getExecutor(), reporter);
     }
 
+    private File searchCacheDir() {
+        return new File(mvnReposFile.getParentFile(),
+            "nexus-search-" + name() + "-results");
+    }
+
+    /**
+     * Sets the time that the responses from the Nexus server are used
+     * without revalidation. Defaults to {@link #DEFAULT_SEARCH_CACHE_TTL}.
+     * Setting the time to zero disables caching. Applies to subsequent
+     * refreshes only, use the constructor to set the time to live for
+     * the initial refresh.
+     *
+     * @param ttl the time to live
+     * @return the nexus search osgi repository
+     */
+    public NexusSearchOsgiRepository setSearchCacheTtl(Duration ttl) {
+        searchCache = new SearchCache(searchCacheDir(), ttl);
+        return this;
+    }
+
     /**
      * Refresh this repository's content.
+     * <P>
+     * The responses from the Nexus server are cached (see 
+     * {@link #setSearchCacheTtl(Duration)}). When the time to live has
+     * expired, cached results are revalidated by checking that the
+     * total number of results of the query hasn't changed. Note that
+     * this doesn't detect changes that leave the number of results
+     * unchanged, e.g. one version removed and another one published.
+     * Such changes are only picked up when the cache is disabled or
+     * the cached responses are invalidated for another reason.
      * 
      * @return true if refreshed, false if not refreshed possibly due to error
      * @throws Exception if a problem occurs
@@ -164,103 +309,279 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
             return false;
         }
         NexusSearchNGResponseParser parser = new NexusSearchNGResponseParser();
-        queryRepositories(parser);
-        queryArtifacts(parser);
+        NexusSearchResults results = new NexusSearchResults();
+        queryRepositories(parser, results);
+        queryArtifacts(parser, results);
+        results.validate();
         // Repository information is obtained from both querying the
         // repositories
         // (provides information about existing repositories) and from executing
         // the query (provides information about actually used repositories).
-        mavenRepository = createMavenRepository(parser);
-        Set<Revision> revsFound = parser.artifacts();
-        Map<String, List<Revision>> revsByName = new HashMap<>();
-        for (Revision rev : revsFound) {
-            revsByName.computeIfAbsent(rev.group + ":" + rev.artifact,
-                k -> new ArrayList<>()).add(rev);
+        mavenRepository = createMavenRepository(results);
+        return refresh(mavenRepository,
+            highestRevisions(results.artifacts(), searchBreadth));
+    }
+
+    /**
+     * Select the given number of highest revisions for each program.
+     * Uses a bounded heap for each program instead of sorting all
+     * revisions. The comparable version of each revision is created
+     * only once.
+     *
+     * @param revisions the revisions
+     * @param limit the number of revisions per program
+     * @return the selected revisions
+     */
+    /* package */ static Set<Revision> highestRevisions(
+            Collection<Revision> revisions, int limit) {
+        Set<Revision> result = new HashSet<>();
+        if (limit <= 0) {
+            return result;
         }
-        Set<Revision> filteredRevs = new HashSet<>();
-        for (List<Revision> artifactRevs : revsByName.values()) {
-            artifactRevs.sort(new MavenRevisionComparator().reversed());
-            filteredRevs.addAll(artifactRevs.subList(
-                0, Math.min(searchBreadth, artifactRevs.size())));
+        Map<Program, PriorityQueue<RankedRevision>> byProgram
+            = new HashMap<>();
+        for (Revision revision : revisions) {
+            PriorityQueue<RankedRevision> highest = byProgram.computeIfAbsent(
+                revision.program, k -> new PriorityQueue<>(limit + 1));
+            RankedRevision ranked = new RankedRevision(revision);
+            if (highest.size() < limit) {
+                highest.add(ranked);
+            } else if (ranked.compareTo(highest.peek()) > 0) {
+                // Replace lowest
+                highest.poll();
+                highest.add(ranked);
+            }
+        }
+        for (PriorityQueue<RankedRevision> highest : byProgram.values()) {
+            for (RankedRevision ranked : highest) {
+                result.add(ranked.revision);
+            }
         }
-        return refresh(mavenRepository, filteredRevs);
+        return result;
     }
 
     /**
      * Obtain information about the repositories that exist on the server.
-     * The information is stored in the parser.
+     * The information is added to the results.
      * 
      * @param parser the parser
+     * @param results the results
      * @throws Exception
      */
-    private void queryRepositories(NexusSearchNGResponseParser parser)
-            throws Exception {
-        int attempts = 0;
-        while (true) {
-            try {
-                logger.debug("Getting repositories");
-                InputStream result = client.build()
-                    .headers("User-Agent", "Bnd")
-                    .get(InputStream.class)
-                    .go(new URL(server, "service/local/repositories"));
-                parser.parse(result);
-                result.close();
-                break;
-            } catch (Exception e) {
-                attempts += 1;
-                if (attempts > 3) {
-                    throw e;
+    private void queryRepositories(NexusSearchNGResponseParser parser,
+            NexusSearchResults results) throws Exception {
+        if (searchCache.isFresh(REPOSITORIES_PATH)) {
+            try (InputStream cached
+                = searchCache.page(REPOSITORIES_PATH, 0, 0)) {
+                if (cached != null) {
+                    results.add(parser.parse(cached));
+                    return;
                 }
-                Thread.sleep(1000 * attempts);
             }
         }
+        logger.debug("Getting repositories");
+        byte[] data;
+        try (InputStream result = transport.get(
+            new URL(server, REPOSITORIES_PATH).toURI())) {
+            data = result.readAllBytes();
+        }
+        results.add(parser.parse(new ByteArrayInputStream(data)));
+        searchCache.invalidate(REPOSITORIES_PATH);
+        searchCache.store(REPOSITORIES_PATH, 0, 0, data);
+        searchCache.validated(REPOSITORIES_PATH, 0);
     }
 
     /**
-     * Execute the query. The result is stored in the parser.
+     * Checks if the cached pages of the query can be used. If they
+     * are stale, the query is sent to the server requesting a single
+     * result. If the total count of results hasn't changed, the cached
+     * pages are considered valid, else they are dropped.
+     *
+     * @param parser the parser
+     * @param query the query
+     * @return true, if the cached pages can be used
+     * @throws Exception the exception
+     */
+    private boolean useCached(NexusSearchNGResponseParser parser,
+            String query) throws Exception {
+        if (!searchCache.contains(query)) {
+            // Remove leftovers, if any.
+            searchCache.invalidate(query);
+            return false;
+        }
+        if (searchCache.isFresh(query)) {
+            return true;
+        }
+        ParseResult parsed;
+        try (InputStream answer = transport.get(new URL(server,
+            "service/local/lucene/search?" + query + "&from=1&count=1")
+                .toURI())) {
+            parsed = parser.parse(answer);
+        }
+        if (searchCache.revalidate(query, parsed.totalCount)) {
+            logger.debug("Cached results for {} are still valid", query);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Execute the query. The results from the chunks are added
+     * to the results as they arrive. Up to {@link #concurrency()}
+     * chunks are requested concurrently. 
+     * <P>
+     * The chunks are requested with an adaptive size. It starts with
+     * the configured chunk size and is doubled (up to 
+     * {@link #MAX_CHUNK_FACTOR} times the configured size) when a 
+     * response is complete and has been received within 
+     * {@link #FAST_RESPONSE}. If a response is truncated because of too 
+     * many results, the size is halved (down to {@link #MIN_CHUNK_SIZE}),
+     * the range is requested again with the smaller size and the size
+     * isn't increased above the smaller size any more.
      * 
      * @param parser the parser
+     * @param results the results
      * @throws Exception
      */
-    private void queryArtifacts(NexusSearchNGResponseParser parser)
-            throws Exception {
-        ExecutorCompletionService<QueryResult> exeSvc
-            = new ExecutorCompletionService<>(Executors.newFixedThreadPool(4));
-        int executing = 0;
-        for (String query : Strings.split(queryString)) {
-            exeSvc.submit(new ArtifactQuery(parser, query, 1, chunkSize));
-            executing += 1;
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private void queryArtifacts(NexusSearchNGResponseParser parser,
+            NexusSearchResults results) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency());
+        try {
+            ExecutorCompletionService<QueryResult> exeSvc
+                = new ExecutorCompletionService<>(executor);
+            List<Pages> pending = new ArrayList<>();
+            for (String query : Strings.split(queryString)) {
+                Pages pages = new Pages(query);
+                pages.validation
+                    = executor.submit(() -> useCached(parser, query));
+                pending.add(pages);
+            }
+            for (Pages pages : pending) {
+                pages.useCache = pages.validation.get();
+            }
+            Deque<ArtifactQuery> retries = new ArrayDeque<>();
+            int currentSize = chunkSize;
+            int maxSize = chunkSize * MAX_CHUNK_FACTOR;
+            int executing = 0;
+            while (true) {
+                // Submit as much as allowed.
+                while (executing < concurrency()) {
+                    ArtifactQuery next = retries.poll();
+                    if (next == null) {
+                        next = nextQuery(parser, pending, currentSize);
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    exeSvc.submit(next);
+                    executing += 1;
+                }
+                if (executing == 0) {
+                    break;
+                }
+                QueryResult result = exeSvc.take().get();
+                executing -= 1;
+                ParseResult parsed = result.parsed;
+                if (parsed.tooManyResults && parsed.count < result.count) {
+                    if (result.count > MIN_CHUNK_SIZE) {
+                        // Shrink and request range again.
+                        currentSize = Math.max(MIN_CHUNK_SIZE,
+                            Math.min(currentSize, result.count / 2));
+                        maxSize = currentSize;
+                        logger.debug("Too many results for {}, retrying "
+                            + "with chunk size {}", result.query, currentSize);
+                        for (int from = result.from;
+                                from < result.from + result.count;
+                                from += currentSize) {
+                            retries.add(new ArtifactQuery(parser,
+                                result.pages, result.query, from,
+                                Math.min(currentSize,
+                                    result.from + result.count - from)));
+                        }
+                        continue;
+                    }
+                    logger.error("Too many results for {}, results were "
+                        + "lost (chunk size too big)", result.query);
+                } else if (!result.cached
+                    && result.duration.compareTo(FAST_RESPONSE) < 0
+                    && result.count >= currentSize) {
+                    currentSize = Math.min(maxSize, currentSize * 2);
+                }
+                results.add(parsed);
+                if (result.pages.total < 0) {
+                    result.pages.total = parsed.totalCount;
+                    if (!result.pages.useCache) {
+                        searchCache.validated(result.query,
+                            parsed.totalCount);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
-        while (executing > 0) {
-            QueryResult result = exeSvc.take().get();
-            executing -= 1;
-            ParseResult parsed = result.parsed;
-            if (parsed.from > 1) {
-                continue;
+    }
+
+    /**
+     * Returns the query for the next chunk or {@code null} if no chunk
+     * can currently be requested. The first chunk of a query is requested
+     * only once, the subsequent chunks can only be requested when the
+     * total count is known.
+     */
+    private ArtifactQuery nextQuery(NexusSearchNGResponseParser parser,
+            List<Pages> pending, int size) {
+        for (Iterator<Pages> iter = pending.iterator(); iter.hasNext();) {
+            Pages pages = iter.next();
+            if (pages.next == 1
+                || pages.total >= 0 && pages.next <= pages.total) {
+                // Use the same pages as before if cached.
+                Integer cachedSize = pages.useCache
+                    ? searchCache.pageCount(pages.query, pages.next)
+                    : null;
+                int count = cachedSize == null ? size : cachedSize;
+                ArtifactQuery query = new ArtifactQuery(parser, pages,
+                    pages.query, pages.next, count);
+                pages.next += count;
+                return query;
             }
-            int from = parsed.from;
-            while (from + chunkSize - 1 < parsed.totalCount) {
-                from += chunkSize;
-                exeSvc.submit(new ArtifactQuery(parser, result.query, from,
-                    chunkSize));
-                executing += 1;
+            if (pages.total >= 0) {
+                // Completely requested.
+                iter.remove();
             }
         }
+        return null;
     }
 
     /**
-     * Execute the query. The result is stored in the parser.
+     * The state of requesting the chunks of a query.
+     */
+    private static class Pages {
+        public final String query;
+        public Future<Boolean> validation;
+        public boolean useCache;
+        public int next = 1;
+        public int total = -1;
+
+        public Pages(String query) {
+            this.query = query;
+        }
+    }
+
+    /**
+     * Execute the query. The result is returned as {@link QueryResult}.
      */
     class ArtifactQuery implements Callable<QueryResult> {
         private NexusSearchNGResponseParser parser;
+        private Pages pages;
         private String query;
         private int from;
         private int count;
 
-        public ArtifactQuery(NexusSearchNGResponseParser parser, String query,
-                int from, int count) {
+        public ArtifactQuery(NexusSearchNGResponseParser parser, Pages pages,
+                String query, int from, int count) {
             super();
             this.parser = parser;
+            this.pages = pages;
             this.query = query;
             this.from = from;
             this.count = count;
@@ -268,41 +589,46 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
 
         @Override
         public QueryResult call() throws Exception {
-            int attempts = 0;
             QueryResult result = new QueryResult();
+            result.pages = pages;
             result.query = query;
-            while (true) {
-                try {
-                    logger.debug("Searching {}", query);
-                    InputStream answer = client.build()
-                        .headers("User-Agent", "Bnd")
-                        .get(InputStream.class)
-                        .go(new URL(server, "service/local/lucene/search?"
-                            + query + "&from=" + from + "&count=" + count));
-                    result.parsed = parser.parse(answer);
-                    answer.close();
-                    logger.debug("Got for {} results from {} to {} (of {})",
-                        query, result.parsed.from,
-                        result.parsed.from + result.parsed.count - 1,
-                        result.parsed.totalCount);
-                    if (result.parsed.tooManyResults
-                        && result.parsed.count < count) {
-                        logger.error("Too many results for {}, results were "
-                            + "lost (chunk size too big)", query);
-                    }
-                    break;
-                } catch (Exception e) {
-                    attempts += 1;
-                    if (attempts > 3) {
-                        throw e;
+            result.from = from;
+            result.count = count;
+            if (pages.useCache) {
+                try (InputStream cached
+                    = searchCache.page(query, from, count)) {
+                    if (cached != null) {
+                        result.parsed = parser.parse(cached);
+                        result.cached = true;
+                        result.duration = Duration.ZERO;
+                        return result;
                     }
-                    Thread.sleep(1000 * attempts);
                 }
             }
+            logger.debug("Searching {}", query);
+            long started = System.nanoTime();
+            byte[] data;
+            try (InputStream answer = transport.get(
+                new URL(server, "service/local/lucene/search?"
+                    + query + "&from=" + from + "&count=" + count).toURI())) {
+                data = answer.readAllBytes();
+            }
+            result.parsed = parser.parse(new ByteArrayInputStream(data));
+            result.duration = Duration.ofNanos(System.nanoTime() - started);
+            if (!result.parsed.tooManyResults
+                || result.parsed.count >= count) {
+                searchCache.store(query, from, count, data);
+            }
+            logger.debug("Got for {} results from {} to {} (of {}) in {} ms",
+                query, result.parsed.from,
+                result.parsed.from + result.parsed.count - 1,
+                result.parsed.totalCount, result.duration.toMillis());
 
-            // List all revisions from query.
-            for (Revision revision : parser.artifacts()) {
-                logger.debug("Found {}", revision);
+            // List all revisions from chunk.
+            if (logger.isDebugEnabled()) {
+                for (Revision revision : result.parsed.artifacts) {
+                    logger.debug("Found {}", revision);
+                }
             }
 
             return result;
@@ -310,12 +636,17 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
     }
 
     private class QueryResult {
+        Pages pages;
         String query;
+        int from;
+        int count;
+        boolean cached;
+        Duration duration;
         ParseResult parsed;
     }
 
     private MavenRepository createMavenRepository(
-            NexusSearchNGResponseParser parser) throws Exception {
+            NexusSearchResults results) throws Exception {
         // Create repository from URLs
         XMLStreamWriter xmlOut
             = XMLOutputFactory.newFactory().createXMLStreamWriter(
@@ -325,21 +656,21 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
         xmlOut.writeStartElement("repository");
         xmlOut.writeStartElement("releaseUrls");
         List<MavenBackingRepository> releaseBackers = new ArrayList<>();
-        for (URL repoUrl : parser.releaseRepositories()) {
+        for (URL repoUrl : results.releaseRepositories()) {
             xmlOut.writeStartElement("url");
             xmlOut.writeCharacters(repoUrl.toString());
             xmlOut.writeEndElement();
-            releaseBackers.addAll(MavenBackingRepository.create(
+            releaseBackers.addAll(PooledMavenRepository.backingRepositories(
                 repoUrl.toString(), reporter, localRepo, client));
         }
         xmlOut.writeEndElement();
         xmlOut.writeStartElement("snapshotUrls");
         List<MavenBackingRepository> snapshotBackers = new ArrayList<>();
-        for (URL repoUrl : parser.snapshotRepositories()) {
+        for (URL repoUrl : results.snapshotRepositories()) {
             xmlOut.writeStartElement("url");
             xmlOut.writeCharacters(repoUrl.toString());
             xmlOut.writeEndElement();
-            snapshotBackers.addAll(MavenBackingRepository.create(
+            snapshotBackers.addAll(PooledMavenRepository.backingRepositories(
                 repoUrl.toString(), reporter, localRepo, client));
         }
         xmlOut.writeEndElement();
@@ -347,7 +678,7 @@ public class NexusSearchOsgiRepository extends LocalMavenBackedOsgiRepository {
         xmlOut.writeEndElement();
         xmlOut.writeEndDocument();
         xmlOut.close();
-        return new MavenRepository(localRepo, name(),
+        return new PooledMavenRepository(localRepo, name(),
             releaseBackers, snapshotBackers,
             Processor.getExecutor(), reporter);
     }
@@ -0,0 +1,123 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.nexussearch;
+
+import aQute.maven.api.Revision;
+import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchNGResponseParser.ParseResult;
+import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchNGResponseParser.RepoInfo;
+import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchNGResponseParser.RepoPolicy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combines the {@link ParseResult}s from the responses to the queries
+ * sent to a Nexus server. Results may be added concurrently.
+ */
+public class NexusSearchResults {
+
+    private static final Logger logger = LoggerFactory.getLogger(
+        NexusSearchResults.class);
+    private final Map<String, RepoInfo> repoInfos = new ConcurrentHashMap<>();
+    private final Set<String> referenced = ConcurrentHashMap.newKeySet();
+    private final Set<Revision> artifacts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds the given result.
+     *
+     * @param result the result
+     * @return the nexus search results
+     */
+    public NexusSearchResults add(ParseResult result) {
+        for (RepoInfo repoInfo : result.repositories) {
+            repoInfos.put(repoInfo.id, repoInfo);
+        }
+        referenced.addAll(result.referencedRepositories);
+        artifacts.addAll(result.artifacts);
+        return this;
+    }
+
+    /**
+     * Checks that all repositories referenced by the artifacts
+     * have been reported. Logs a warning for each repository
+     * that is missing. Invoked once, after all results have been
+     * added (references and repository information may be
+     * reported in different results).
+     *
+     * @return the nexus search results
+     */
+    public NexusSearchResults validate() {
+        for (String repositoryId : referenced) {
+            if (!repoInfos.containsKey(repositoryId)) {
+                logger.warn("Inconsistent search result: reference to "
+                    + "non-existant repository with id " + repositoryId
+                    + ".");
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the reported snapshot repositories.
+     * 
+     * @return the result
+     * @throws MalformedURLException if the URL is malformed
+     */
+    public Set<URL> snapshotRepositories() throws MalformedURLException {
+        return repositories(RepoPolicy.Snapshot);
+    }
+
+    /**
+     * Returns the reported release repositories.
+     * 
+     * @return the result
+     * @throws MalformedURLException if the URL is malformed
+     */
+    public Set<URL> releaseRepositories() throws MalformedURLException {
+        return repositories(RepoPolicy.Release);
+    }
+
+    private Set<URL> repositories(RepoPolicy policy)
+            throws MalformedURLException {
+        Set<URL> result = new HashSet<>();
+        for (String repositoryId : referenced) {
+            RepoInfo info = repoInfos.get(repositoryId);
+            // Missing information is reported by validate()
+            if (info != null && info.repoPolicy == policy) {
+                result.add(info.contentResourceUri.toURL());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the reported artifacts.
+     * 
+     * @return the result
+     */
+    public Set<Revision> artifacts() {
+        return Collections.unmodifiableSet(artifacts);
+    }
+}
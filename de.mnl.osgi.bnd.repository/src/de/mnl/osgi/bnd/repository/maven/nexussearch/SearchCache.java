@@ -0,0 +1,315 @@
+/*
+ * Extra Bnd Repository Plugins
+ * Copyright (C) 2026 Michael N. Lipp
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.mnl.osgi.bnd.repository.maven.nexussearch;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Caches the responses from a Nexus server on disk. Every query has 
+ * its own directory, with a file for every page (chunk) of the result
+ * and a properties file with the query, the total count of the
+ * results and the time when the cached pages have been validated.
+ * <P>
+ * The pages of a query are considered fresh for the configured
+ * time to live. Stale pages can be revalidated by the user of
+ * the cache, e.g. by checking that the total count of results
+ * hasn't changed (see {@link #revalidate(String, int)}). This is
+ * a cheap but weak check: changes that don't affect the total count
+ * remain undetected and the stale pages continue to be used.
+ */
+class SearchCache {
+
+    private static final Pattern PAGE_FILE
+        = Pattern.compile("^(\\d+)-(\\d+)\\.xml$");
+    private static final String QUERY_PROPS = "query.properties";
+    private static final String QUERY = "query";
+    private static final String TOTAL_COUNT = "totalCount";
+    private static final String VALIDATED = "validated";
+
+    private final File directory;
+    private final Duration ttl;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new search cache.
+     *
+     * @param directory the directory
+     * @param ttl the time to live, the cache is disabled if zero
+     */
+    public SearchCache(File directory, Duration ttl) {
+        this.directory = directory;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Checks if the cache is enabled.
+     *
+     * @return true, if is enabled
+     */
+    public boolean isEnabled() {
+        return !ttl.isZero() && !ttl.isNegative();
+    }
+
+    /**
+     * Checks if there are cached pages for the query.
+     *
+     * @param query the query
+     * @return true, if successful
+     */
+    public boolean contains(String query) {
+        return isEnabled() && entry(query).validated() > 0;
+    }
+
+    /**
+     * Checks if the cached pages for the query may be used 
+     * without revalidation.
+     *
+     * @param query the query
+     * @return true, if is fresh
+     */
+    public boolean isFresh(String query) {
+        return contains(query) && entry(query).validated()
+            + ttl.toMillis() > System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the total count of results reported when the pages
+     * were last validated.
+     *
+     * @param query the query
+     * @return the count or -1 if unknown
+     */
+    public int totalCount(String query) {
+        return Integer.parseInt(entry(query).props
+            .getProperty(TOTAL_COUNT, "-1"));
+    }
+
+    /**
+     * Marks the pages of the query as validated now. The caller
+     * must have invalidated the cached pages if the total count 
+     * has changed.
+     *
+     * @param query the query
+     * @param totalCount the total count
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void validated(String query, int totalCount) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Entry entry = entry(query);
+        synchronized (entry) {
+            entry.props.setProperty(QUERY, query);
+            entry.props.setProperty(TOTAL_COUNT,
+                Integer.toString(totalCount));
+            entry.props.setProperty(VALIDATED,
+                Long.toString(System.currentTimeMillis()));
+            entry.dir.mkdirs();
+            Path tmpFile = Files.createTempFile(entry.dir.toPath(),
+                QUERY_PROPS, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                entry.props.store(out, null);
+            }
+            Files.move(tmpFile, entry.dir.toPath().resolve(QUERY_PROPS),
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Revalidates the (stale) pages of the query with the total count
+     * of results currently reported by the server. If the count hasn't
+     * changed, the pages are marked as validated, else they are
+     * dropped.
+     *
+     * @param query the query
+     * @param totalCount the total count reported by the server
+     * @return true, if the cached pages can be used
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public boolean revalidate(String query, int totalCount)
+            throws IOException {
+        if (contains(query) && totalCount == totalCount(query)) {
+            validated(query, totalCount);
+            return true;
+        }
+        invalidate(query);
+        return false;
+    }
+
+    /**
+     * Drops the cached pages of the query.
+     *
+     * @param query the query
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void invalidate(String query) throws IOException {
+        Entry entry = entries.remove(query);
+        File dir = entry == null ? queryDir(query) : entry.dir;
+        if (!dir.exists()) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    /**
+     * Returns the number of results requested for the cached page
+     * that starts at the given position.
+     *
+     * @param query the query
+     * @param from the start of the page
+     * @return the count or {@code null} if there is no such page
+     */
+    public Integer pageCount(String query, int from) {
+        return entry(query).pages.get(from);
+    }
+
+    /**
+     * Returns the cached page.
+     *
+     * @param query the query
+     * @param from the start of the page
+     * @param count the number of requested results
+     * @return the content or {@code null} if not cached
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @SuppressWarnings("PMD.CloseResource")
+    public InputStream page(String query, int from, int count)
+            throws IOException {
+        Entry entry = entry(query);
+        Integer cachedCount = entry.pages.get(from);
+        if (cachedCount == null || cachedCount != count) {
+            return null;
+        }
+        File file = new File(entry.dir, pageFile(from, count));
+        if (!file.canRead()) {
+            entry.pages.remove(from);
+            return null;
+        }
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Adds a page to the cache.
+     *
+     * @param query the query
+     * @param from the start of the page
+     * @param count the number of requested results
+     * @param data the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void store(String query, int from, int count, byte[] data)
+            throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Entry entry = entry(query);
+        entry.dir.mkdirs();
+        String name = pageFile(from, count);
+        Path tmpFile = Files.createTempFile(entry.dir.toPath(), name, ".tmp");
+        Files.write(tmpFile, data);
+        Files.move(tmpFile, entry.dir.toPath().resolve(name),
+            StandardCopyOption.REPLACE_EXISTING);
+        Integer previous = entry.pages.put(from, count);
+        if (previous != null && previous != count) {
+            Files.deleteIfExists(entry.dir.toPath()
+                .resolve(pageFile(from, previous)));
+        }
+    }
+
+    private static String pageFile(int from, int count) {
+        return from + "-" + count + ".xml";
+    }
+
+    private Entry entry(String query) {
+        return entries.computeIfAbsent(query, Entry::new);
+    }
+
+    private File queryDir(String query) {
+        try {
+            StringBuilder name = new StringBuilder(40);
+            for (byte b : MessageDigest.getInstance("SHA-1")
+                .digest(query.getBytes(StandardCharsets.UTF_8))) {
+                name.append(String.format("%02x", b));
+            }
+            return new File(directory, name.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The cached information about a query.
+     */
+    private class Entry {
+        public final File dir;
+        public final Properties props = new Properties();
+        public final Map<Integer, Integer> pages = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("PMD.EmptyCatchBlock")
+        public Entry(String query) {
+            dir = queryDir(query);
+            File propsFile = new File(dir, QUERY_PROPS);
+            if (!propsFile.canRead()) {
+                return;
+            }
+            try (InputStream in = new FileInputStream(propsFile)) {
+                props.load(in);
+            } catch (IOException e) {
+                // Treated as not cached.
+            }
+            if (!query.equals(props.getProperty(QUERY))) {
+                props.clear();
+                return;
+            }
+            String[] files = dir.list();
+            for (String file : files == null ? new String[0] : files) {
+                Matcher matcher = PAGE_FILE.matcher(file);
+                if (matcher.matches()) {
+                    pages.put(Integer.parseInt(matcher.group(1)),
+                        Integer.parseInt(matcher.group(2)));
+                }
+            }
+        }
+
+        public long validated() {
+            return Long.parseLong(props.getProperty(VALIDATED, "0"));
+        }
+    }
+}
@@ -24,6 +24,7 @@ import static aQute.bnd.osgi.Constants.BSN_SOURCE_SUFFIX;
 import aQute.bnd.osgi.repository.BaseRepository;
 import aQute.bnd.osgi.repository.BridgeRepository;
 import aQute.bnd.osgi.repository.BridgeRepository.ResourceInfo;
+import aQute.bnd.service.Actionable;
 import aQute.bnd.service.Plugin;
 import aQute.bnd.service.Refreshable;
 import aQute.bnd.service.Registry;
@@ -36,23 +37,44 @@ import aQute.lib.converter.Converter;
 import aQute.lib.io.IO;
 import aQute.libg.reporter.slf4j.Slf4jReporter;
 import aQute.maven.api.Archive;
+import aQute.maven.api.Program;
 import aQute.service.reporter.Reporter;
+import de.mnl.osgi.bnd.maven.CompositeMavenRepository;
+import de.mnl.osgi.bnd.maven.HttpSettings;
+import de.mnl.osgi.bnd.maven.MavenResourceRepository;
+import de.mnl.osgi.bnd.maven.PooledMavenRepository;
 import de.mnl.osgi.bnd.maven.RepositoryUtils;
+import de.mnl.osgi.bnd.maven.UnresolvableCache;
 import de.mnl.osgi.bnd.repository.maven.idxmvn.IndexedMavenConfiguration;
 import de.mnl.osgi.bnd.repository.maven.idxmvn.IndexedMavenRepository;
+import de.mnl.osgi.bnd.repository.maven.idxmvn.IndexedMavenRepository.RefreshResult;
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import org.osgi.resource.Capability;
 import org.osgi.resource.Requirement;
+import org.osgi.resource.Resource;
 import org.osgi.service.repository.Repository;
 import org.osgi.util.promise.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Maintains an index of a subset of one or more maven repositories
@@ -60,9 +82,13 @@ import org.osgi.util.promise.Promise;
  */
 public class IndexedMavenRepositoryProvider extends BaseRepository
         implements Repository, Plugin, RegistryPlugin, RepositoryPlugin,
-        Refreshable {
+        Refreshable, Actionable, Closeable {
     private static final String MAVEN_REPO_LOCAL
         = System.getProperty("maven.repo.local", "~/.m2/repository");
+    private static final int DEFAULT_WATCH_DELAY = 2000;
+    private static final Logger LOG = LoggerFactory.getLogger(
+        IndexedMavenRepositoryProvider.class);
+    private static final int PREFETCHERS = 8;
 
     private boolean initialized;
     private IndexedMavenConfiguration configuration;
@@ -72,8 +98,19 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
     private Reporter reporter
         = new Slf4jReporter(IndexedMavenRepositoryProvider.class);
     private IndexedMavenRepository osgiRepository;
+    private HttpClient client;
     private BridgeRepository bridge;
     private boolean logIndexing;
+    private boolean prefetch;
+    private final Map<Archive, CompletableFuture<File>> prefetching
+        = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchers
+        = Executors.newFixedThreadPool(PREFETCHERS, runnable -> {
+            Thread thread = new Thread(runnable, "Prefetcher");
+            // Must not keep the (CLI) JVM alive.
+            thread.setDaemon(true);
+            return thread;
+        });
 
     @Override
     @SuppressWarnings({ "PMD.UseLocaleWithCaseConversions", "restriction" })
@@ -84,6 +121,7 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
         location = configuration.location(
             "cnf/" + name.toLowerCase().replace(' ', '-').replace('/', ':'));
         logIndexing = configuration.logIndexing();
+        prefetch = configuration.prefetch(false);
     }
 
     @Override
@@ -127,7 +165,7 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
             }
             initialized = true;
             Workspace workspace = registry.getPlugin(Workspace.class);
-            HttpClient client = registry.getPlugin(HttpClient.class);
+            client = registry.getPlugin(HttpClient.class);
             File indexDb = workspace.getFile(getLocation());
             File localRepo = IO.getFile(configuration.local(MAVEN_REPO_LOCAL));
             try {
@@ -140,14 +178,60 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
                     RepositoryUtils.itemizeList(configuration.snapshotUrls())
                         .map(ru -> stringToUrl(ru))
                         .collect(Collectors.toList()),
-                    localRepo, indexDb, reporter, client, logIndexing);
+                    localRepo, indexDb, reporter, client, httpSettings(),
+                    logIndexing, this::configureCaches);
                 bridge = new BridgeRepository(osgiRepository);
+                if (configuration.watchGroups()) {
+                    osgiRepository.startWatching(
+                        Duration.ofMillis(
+                            configuration.watchDelay(DEFAULT_WATCH_DELAY)),
+                        // Already refreshed, only publish.
+                        groupIds -> refreshAction(() -> true).run());
+                }
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }
     }
 
+    /**
+     * Invoked by the {@link IndexedMavenRepository}'s constructor, i.e.
+     * before the persisted content is restored.
+     */
+    private void configureCaches(MavenResourceRepository repository) {
+        repository.setResourceCacheLimit(configuration.resourceCacheSize(
+            (int) MavenResourceRepository.DEFAULT_RESOURCE_CACHE_SIZE));
+        repository.setCacheLimits(
+            configuration.programCacheWeight(
+                (int) CompositeMavenRepository.DEFAULT_PROGRAM_CACHE_WEIGHT),
+            configuration.modelCacheSize(
+                (int) CompositeMavenRepository.DEFAULT_MODEL_CACHE_SIZE));
+        repository.unresolvableCache().setTtl(Duration.ofSeconds(
+            configuration.unresolvableTtl(
+                (int) UnresolvableCache.DEFAULT_TTL.getSeconds())));
+        repository.setSnapshotTtl(Duration.ofSeconds(configuration.snapshotTtl(
+            (int) CompositeMavenRepository.DEFAULT_SNAPSHOT_TTL.getSeconds())));
+    }
+
+    private HttpSettings httpSettings() {
+        return new HttpSettings()
+            .setConnectTimeout(Duration.ofMillis(configuration.connectTimeout(
+                (int) HttpSettings.DEFAULT_CONNECT_TIMEOUT.toMillis())))
+            .setRequestTimeout(Duration.ofMillis(configuration.requestTimeout(
+                (int) HttpSettings.DEFAULT_REQUEST_TIMEOUT.toMillis())))
+            .setRetries(configuration.retries(HttpSettings.DEFAULT_RETRIES))
+            .setRetryDelay(Duration.ofMillis(configuration.retryDelay(
+                (int) HttpSettings.DEFAULT_RETRY_DELAY.toMillis())))
+            .setFailureThreshold(configuration.failureThreshold(
+                HttpSettings.DEFAULT_FAILURE_THRESHOLD))
+            .setUnavailableDelay(Duration.ofMillis(configuration
+                .unavailableDelay((int) HttpSettings.DEFAULT_UNAVAILABLE_DELAY
+                    .toMillis())))
+            .setMaxConnections(configuration
+                .maxConnections(HttpSettings.DEFAULT_MAX_CONNECTIONS))
+            .setHttp2(configuration.http2());
+    }
+
     private URL stringToUrl(String url) {
         try {
             return new URL(url);
@@ -165,9 +249,21 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     public boolean refresh() throws Exception {
         init();
-        if (!osgiRepository.refresh()) {
+        return refreshed(osgiRepository::refresh);
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private boolean refreshed(Callable<Boolean> refresher) throws Exception {
+        if (!refresher.call()) {
             return false;
         }
+        published();
+        return true;
+    }
+
+    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
+        "PMD.SignatureDeclareThrowsException" })
+    private void published() throws Exception {
         bridge = new BridgeRepository(osgiRepository);
         for (RepositoryListenerPlugin listener : registry
             .getPlugins(RepositoryListenerPlugin.class)) {
@@ -177,7 +273,6 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
                 reporter.exception(e, "Updating listener plugin %s", listener);
             }
         }
-        return true;
     }
 
     @Override
@@ -196,6 +291,11 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
             archive = Archive.valueOf(from);
         }
 
+        CompletableFuture<File> prefetched = prefetching.get(archive);
+        if (prefetched != null && listeners.length == 0) {
+            // Don't download twice.
+            prefetched.handle((file, exc) -> file).get();
+        }
         Promise<File> prmse
             = osgiRepository.mavenRepository().retrieve(archive);
 
@@ -256,7 +356,172 @@ public class IndexedMavenRepositoryProvider extends BaseRepository
     public Map<Requirement, Collection<Capability>> findProviders(
             Collection<? extends Requirement> requirements) {
         init();
-        return osgiRepository.findProviders(requirements);
+        Map<Requirement, Collection<Capability>> result
+            = osgiRepository.findProviders(requirements);
+        if (prefetch) {
+            // Single providers will most likely be part of the resolution.
+            prefetch(result.values().stream()
+                .filter(providers -> providers.size() == 1)
+                .map(providers -> providers.iterator().next().getResource())
+                .collect(Collectors.toSet()));
+        }
+        return result;
+    }
+
+    /**
+     * Starts downloading the archives of the given resources to the
+     * local repository in the background. Archives that are available
+     * locally already or that are being downloaded are skipped.
+     *
+     * @param resources the resources
+     * @return a future that completes when all downloads have finished
+     * (exceptionally, if a download has failed)
+     */
+    public CompletableFuture<Void>
+            prefetch(Collection<? extends Resource> resources) {
+        init();
+        return CompletableFuture.allOf(resources.stream()
+            .map(this::archive).filter(archive -> archive != null)
+            .map(this::prefetch).toArray(CompletableFuture[]::new));
+    }
+
+    private Archive archive(Resource resource) {
+        for (Capability cap : resource.getCapabilities("bnd.info")) {
+            Object from = cap.getAttributes().get("from");
+            if (from != null) {
+                return Archive.valueOf(from.toString());
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings({ "PMD.AvoidCatchingGenericException",
+        "PMD.GuardLogStatement" })
+    private CompletableFuture<File> prefetch(Archive archive) {
+        File local = osgiRepository.mavenRepository().toLocalFile(archive);
+        if (!archive.isSnapshot() && local.exists()) {
+            return CompletableFuture.completedFuture(local);
+        }
+        CompletableFuture<File> download = new CompletableFuture<>();
+        CompletableFuture<File> running
+            = prefetching.putIfAbsent(archive, download);
+        if (running != null) {
+            return running;
+        }
+        try {
+            prefetchers.execute(() -> {
+                try {
+                    download.complete(osgiRepository.mavenRepository()
+                        .retrieve(archive).getValue());
+                } catch (Exception e) {
+                    // Will be reported when actually requested.
+                    LOG.debug("Prefetching {} failed: {}", archive,
+                        e.getMessage());
+                    download.completeExceptionally(e);
+                } finally {
+                    prefetching.remove(archive, download);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed
+            prefetching.remove(archive, download);
+            download.completeExceptionally(e);
+        }
+        return download;
+    }
+
+    /**
+     * Provides actions for refreshing parts of the repository. On
+     * the repository itself, an action for each requested group and
+     * an action for forgetting the coordinates remembered as
+     * unresolvable are offered. On a bundle (or a bundle's version),
+     * the bundle's program or group can be refreshed.
+     */
+    @Override
+    public Map<String, Runnable> actions(Object... target) throws Exception {
+        init();
+        Map<String, Runnable> actions = new LinkedHashMap<>();
+        if (target == null || target.length == 0) {
+            for (String groupId : osgiRepository.requestedGroups()) {
+                actions.put("Refresh group " + groupId,
+                    refreshAction(() -> osgiRepository
+                        .refresh(groupId) == RefreshResult.REFRESHED));
+            }
+            actions.put("Forget unresolvable",
+                osgiRepository::forgetUnresolvable);
+            return actions;
+        }
+        Archive archive = archive((String) target[0],
+            target.length > 1 ? (Version) target[1] : null);
+        if (archive == null || !osgiRepository.requestedGroups()
+            .contains(archive.revision.group)) {
+            return actions;
+        }
+        Program program = archive.revision.program;
+        actions.put("Refresh " + program,
+            refreshAction(() -> osgiRepository
+                .refresh(program) == RefreshResult.REFRESHED));
+        actions.put("Refresh group " + program.group,
+            refreshAction(() -> osgiRepository
+                .refresh(program.group) == RefreshResult.REFRESHED));
+        return actions;
+    }
+
+    private Archive archive(String bsn, Version version) throws Exception {
+        Version selected = version;
+        if (selected == null) {
+            SortedSet<Version> versions = bridge.versions(bsn);
+            if (versions == null || versions.isEmpty()) {
+                return null;
+            }
+            selected = versions.last();
+        }
+        ResourceInfo resource = bridge.getInfo(bsn, selected);
+        if (resource == null || resource.getInfo() == null) {
+            return null;
+        }
+        return Archive.valueOf(resource.getInfo().from());
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private Runnable refreshAction(Callable<Boolean> refresher) {
+        return () -> {
+            try {
+                refreshed(refresher);
+            } catch (Exception e) {
+                reporter.exception(e, "Refreshing %s failed: %s", name,
+                    e.getMessage());
+            }
+        };
+    }
+
+    @Override
+    public String tooltip(Object... target) throws Exception {
+        return null;
+    }
+
+    @Override
+    public String title(Object... target) throws Exception {
+        return null;
+    }
+
+    /**
+     * Stops watching the group directories, cancels pending prefetches
+     * and releases the shared backing repositories.
+     */
+    @Override
+    public void close() throws IOException {
+        prefetchers.shutdownNow();
+        prefetching.values().forEach(download -> download.cancel(true));
+        prefetching.clear();
+        synchronized (this) {
+            if (osgiRepository != null) {
+                osgiRepository.stopWatching();
+            }
+            if (client != null) {
+                PooledMavenRepository.release(client);
+            }
+        }
     }
 
     @Override
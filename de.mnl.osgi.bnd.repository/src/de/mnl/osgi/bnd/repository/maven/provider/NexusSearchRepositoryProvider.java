@@ -35,16 +35,23 @@ import aQute.lib.converter.Converter;
 import aQute.lib.io.IO;
 import aQute.maven.api.Archive;
 import aQute.service.reporter.Reporter;
+import de.mnl.osgi.bnd.maven.HttpSettings;
+import de.mnl.osgi.bnd.maven.PooledMavenRepository;
+import de.mnl.osgi.bnd.maven.RepositoryUtils;
+import de.mnl.osgi.bnd.repository.maven.nexussearch.DependencyLimits;
 import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchConfiguration;
 import de.mnl.osgi.bnd.repository.maven.nexussearch.NexusSearchOsgiRepository;
+import java.io.Closeable;
 import java.io.File;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.stream.Collectors;
 import org.osgi.resource.Capability;
 import org.osgi.resource.Requirement;
 import org.osgi.service.repository.Repository;
@@ -56,7 +63,7 @@ import org.osgi.util.promise.Promise;
  */
 public class NexusSearchRepositoryProvider extends BaseRepository
         implements Repository, Plugin, RegistryPlugin, RepositoryPlugin,
-        Refreshable {
+        Refreshable, Closeable {
 //	private final static Logger logger = LoggerFactory.getLogger(
 //			NexusSearchRepositoryProvider.class);
     private static final String MAVEN_REPO_LOCAL
@@ -69,6 +76,7 @@ public class NexusSearchRepositoryProvider extends BaseRepository
     private Registry registry = null;
     private Reporter reporter;
     private NexusSearchOsgiRepository osgiRepository = null;
+    private HttpClient client;
     private URL server = null;
     private BridgeRepository bridge;
 
@@ -120,7 +128,7 @@ public class NexusSearchRepositoryProvider extends BaseRepository
         initialized = true;
         String queryString = configuration.query();
         Workspace workspace = registry.getPlugin(Workspace.class);
-        HttpClient client = registry.getPlugin(HttpClient.class);
+        client = registry.getPlugin(HttpClient.class);
         File obrIndexFile = workspace.getFile(getLocation());
         File mvnReposFile = workspace.getFile(
             "cnf/cache/nexus-search-" + name + "-repositories.xml");
@@ -129,13 +137,55 @@ public class NexusSearchRepositoryProvider extends BaseRepository
             osgiRepository = new NexusSearchOsgiRepository(
                 name, server, localRepo, obrIndexFile, mvnReposFile,
                 queryString, configuration.searchBreadth(3),
-                configuration.chunkSize(500), reporter, client);
+                configuration.chunkSize(500), reporter, client,
+                httpSettings(), dependencyLimits(),
+                Duration.ofSeconds(configuration.searchCacheTtl(
+                    (int) NexusSearchOsgiRepository.DEFAULT_SEARCH_CACHE_TTL
+                        .getSeconds())));
             bridge = new BridgeRepository(osgiRepository);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    private DependencyLimits dependencyLimits() {
+        DependencyLimits limits = new DependencyLimits()
+            .setMaxDepth(configuration.transitive(true)
+                ? configuration.maxDepth(Integer.MAX_VALUE)
+                : 0)
+            .setSkipProvided(configuration.skipProvided());
+        if (configuration.includeGroups() != null) {
+            limits.setIncludedGroups(
+                RepositoryUtils.itemizeList(configuration.includeGroups())
+                    .collect(Collectors.toList()));
+        }
+        if (configuration.excludeGroups() != null) {
+            limits.setExcludedGroups(
+                RepositoryUtils.itemizeList(configuration.excludeGroups())
+                    .collect(Collectors.toList()));
+        }
+        return limits;
+    }
+
+    private HttpSettings httpSettings() {
+        return new HttpSettings()
+            .setConnectTimeout(Duration.ofMillis(configuration.connectTimeout(
+                (int) HttpSettings.DEFAULT_CONNECT_TIMEOUT.toMillis())))
+            .setRequestTimeout(Duration.ofMillis(configuration.requestTimeout(
+                (int) HttpSettings.DEFAULT_REQUEST_TIMEOUT.toMillis())))
+            .setRetries(configuration.retries(HttpSettings.DEFAULT_RETRIES))
+            .setRetryDelay(Duration.ofMillis(configuration.retryDelay(
+                (int) HttpSettings.DEFAULT_RETRY_DELAY.toMillis())))
+            .setFailureThreshold(configuration.failureThreshold(
+                HttpSettings.DEFAULT_FAILURE_THRESHOLD))
+            .setUnavailableDelay(Duration.ofMillis(configuration
+                .unavailableDelay((int) HttpSettings.DEFAULT_UNAVAILABLE_DELAY
+                    .toMillis())))
+            .setMaxConnections(configuration
+                .maxConnections(HttpSettings.DEFAULT_MAX_CONNECTIONS))
+            .setHttp2(configuration.http2());
+    }
+
     @Override
     public File getRoot() throws Exception {
         return localRepo;
@@ -205,4 +255,14 @@ public class NexusSearchRepositoryProvider extends BaseRepository
         init();
         return osgiRepository.findProviders(requirements);
     }
+
+    /**
+     * Releases the shared backing repositories.
+     */
+    @Override
+    public synchronized void close() {
+        if (client != null) {
+            PooledMavenRepository.release(client);
+        }
+    }
 }
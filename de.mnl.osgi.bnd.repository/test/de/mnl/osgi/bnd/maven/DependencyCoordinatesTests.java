@@ -0,0 +1,72 @@
+package de.mnl.osgi.bnd.maven;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the conversion of dependencies to and from the coordinates
+ * stored in the "maven.dependencies.info" name space.
+ */
+public class DependencyCoordinatesTests {
+
+    private Dependency dependency(String type, String classifier) {
+        Dependency dep = new Dependency();
+        dep.setGroupId("org.example");
+        dep.setArtifactId("example");
+        dep.setVersion("1.2.3");
+        dep.setType(type);
+        dep.setClassifier(classifier);
+        return dep;
+    }
+
+    private void assertRoundTrip(Dependency dep, String expected) {
+        String coords = MavenResourceRepository.toCoordinates(dep);
+        assertEquals(expected, coords);
+        Dependency parsed
+            = MavenResourceRepository.toDependency("runtime", coords);
+        assertEquals(dep.getGroupId(), parsed.getGroupId());
+        assertEquals(dep.getArtifactId(), parsed.getArtifactId());
+        assertEquals(dep.getType(), parsed.getType());
+        assertEquals(dep.getClassifier(), parsed.getClassifier());
+        assertEquals(dep.getVersion(), parsed.getVersion());
+        assertEquals("runtime", parsed.getScope());
+    }
+
+    @Test
+    public void testJar() {
+        assertRoundTrip(dependency("jar", null), "org.example:example:1.2.3");
+    }
+
+    @Test
+    public void testType() {
+        assertRoundTrip(dependency("pom", null),
+            "org.example:example:pom:1.2.3");
+    }
+
+    @Test
+    public void testClassifier() {
+        assertRoundTrip(dependency("jar", "tests"),
+            "org.example:example:jar:tests:1.2.3");
+    }
+
+    @Test
+    public void testTypeAndClassifier() {
+        assertRoundTrip(dependency("test-jar", "tests"),
+            "org.example:example:test-jar:tests:1.2.3");
+    }
+
+    @Test
+    public void testOldFormat() {
+        // Coordinates persisted before type and classifier were added
+        Dependency parsed = MavenResourceRepository.toDependency("compile",
+            "org.example:example:[1.0,2.0)");
+        assertEquals("org.example", parsed.getGroupId());
+        assertEquals("example", parsed.getArtifactId());
+        assertEquals("jar", parsed.getType());
+        assertNull(parsed.getClassifier());
+        assertEquals("[1.0,2.0)", parsed.getVersion());
+        assertEquals("compile", parsed.getScope());
+    }
+}
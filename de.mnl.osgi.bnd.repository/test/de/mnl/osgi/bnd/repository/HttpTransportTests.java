@@ -0,0 +1,223 @@
+package de.mnl.osgi.bnd.repository;
+
+import aQute.bnd.http.HttpClient;
+import com.sun.net.httpserver.HttpServer;
+import de.mnl.osgi.bnd.maven.HostHealth;
+import de.mnl.osgi.bnd.maven.HttpSettings;
+import de.mnl.osgi.bnd.maven.HttpTransport;
+import de.mnl.osgi.bnd.maven.RepositoryUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the retries and the host health tracking against a local
+ * server that fails a configurable number of requests.
+ */
+public class HttpTransportTests {
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private final CountDownLatch stalled = new CountDownLatch(1);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private volatile int failures;
+    private volatile int failureStatus = 503;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        HostHealth.resetAll();
+        server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            int count = requests.incrementAndGet();
+            if (exchange.getRequestURI().getPath().equals("/missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if (exchange.getRequestURI().getPath().equals("/stall")) {
+                try {
+                    stalled.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (exchange.getRequestURI().getPath().equals("/slow")) {
+                maxActive.accumulateAndGet(active.incrementAndGet(),
+                    Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                exchange.sendResponseHeaders(204, -1);
+            } else if (count <= failures) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+            } else {
+                byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        stalled.countDown();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://" + server.getAddress().getHostString()
+            + ":" + server.getAddress().getPort() + path);
+    }
+
+    private HttpTransport transport(int retries, int failureThreshold,
+            Duration unavailableDelay) {
+        return new HttpTransport(null, new HttpSettings().setHttp2(true)
+            .setRetries(retries).setRetryDelay(Duration.ofMillis(10))
+            .setFailureThreshold(failureThreshold)
+            .setUnavailableDelay(unavailableDelay));
+    }
+
+    @Test
+    public void testRetriedUntilSuccess() throws IOException {
+        failures = 2;
+        assertEquals("ok", transport(3, 10, Duration.ofMinutes(1))
+            .getString(uri("/data")));
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testNotFound() throws IOException {
+        assertNull(transport(3, 10, Duration.ofMinutes(1))
+            .getString(uri("/missing")));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testClientErrorNotRetried() {
+        failures = 1;
+        failureStatus = 403;
+        HttpTransport.StatusException exc = assertThrows(
+            HttpTransport.StatusException.class,
+            () -> transport(3, 10, Duration.ofMinutes(1))
+                .getString(uri("/data")));
+        assertEquals(403, exc.status());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testGivesUp() {
+        failures = Integer.MAX_VALUE;
+        assertThrows(HttpTransport.StatusException.class,
+            () -> transport(2, 10, Duration.ofMinutes(1))
+                .getString(uri("/data")));
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testUnavailableHostSkipped() {
+        failures = Integer.MAX_VALUE;
+        HttpTransport transport = transport(5, 2, Duration.ofMinutes(1));
+        assertThrows(HostHealth.UnavailableException.class,
+            () -> transport.getString(uri("/data")));
+        assertEquals(2, requests.get());
+        assertTrue(HostHealth.of(uri("/")).isUnavailable());
+        // Fails without sending a request
+        assertThrows(HostHealth.UnavailableException.class,
+            () -> transport.getString(uri("/other")));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        failures = 2;
+        HttpTransport transport = transport(1, 2, Duration.ofMillis(100));
+        assertThrows(IOException.class,
+            () -> transport.getString(uri("/data")));
+        assertTrue(HostHealth.of(uri("/")).isUnavailable());
+        Thread.sleep(150);
+        assertEquals("ok", transport.getString(uri("/data")));
+        assertEquals(3, requests.get());
+        assertTrue(!HostHealth.of(uri("/")).isUnavailable());
+    }
+
+    @Test
+    public void testStalledHttp2() {
+        assertStalled(new HttpTransport(null, stallSettings().setHttp2(true)));
+    }
+
+    @Test
+    public void testStalledBnd() {
+        assertStalled(new HttpTransport(new HttpClient(), stallSettings()));
+    }
+
+    private HttpSettings stallSettings() {
+        return new HttpSettings().setRequestTimeout(Duration.ofMillis(200))
+            .setRetries(1).setRetryDelay(Duration.ofMillis(10))
+            .setFailureThreshold(2).setUnavailableDelay(Duration.ofMinutes(1));
+    }
+
+    private void assertStalled(HttpTransport transport) {
+        // Timeouts are retried and count as failures of the host
+        assertThrows(IOException.class,
+            () -> transport.getString(uri("/stall")));
+        assertEquals(2, requests.get());
+        assertTrue(HostHealth.of(uri("/")).isUnavailable());
+    }
+
+    @Test
+    public void testLimitedHttp2() {
+        assertLimited(new HttpTransport(null,
+            new HttpSettings().setMaxConnections(2).setHttp2(true)));
+    }
+
+    @Test
+    public void testLimitedBnd() {
+        assertLimited(new HttpTransport(new HttpClient(),
+            new HttpSettings().setMaxConnections(2)));
+    }
+
+    private void assertLimited(HttpTransport transport) {
+        CompletableFuture.allOf(IntStream.range(0, 6)
+            .mapToObj(i -> transport.getStringAsync(uri("/slow")))
+            .toArray(CompletableFuture[]::new)).join();
+        assertEquals(6, requests.get());
+        assertTrue(maxActive.get() <= 2);
+    }
+
+    @Test
+    public void testRetryDelay() {
+        for (int retry = 1; retry <= 4; retry++) {
+            long max = 100L << (retry - 1);
+            long delay = RepositoryUtils.retryDelay(Duration.ofMillis(100),
+                retry);
+            assertTrue(delay >= max / 2 && delay <= max);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package de.mnl.osgi.bnd.repository.maven.nexussearch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the on disk cache for the responses from a Nexus server.
+ */
+public class SearchCacheTests {
+
+    private static final String QUERY = "q=org.example";
+
+    private Path directory;
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("searchCache");
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private SearchCache cache(Duration ttl) {
+        return new SearchCache(directory.toFile(), ttl);
+    }
+
+    private void fill(SearchCache cache) throws IOException {
+        cache.store(QUERY, 1, 100, bytes("page 1"));
+        cache.store(QUERY, 101, 200, bytes("page 2"));
+        cache.validated(QUERY, 250);
+    }
+
+    private static byte[] bytes(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream page = in) {
+            return new String(page.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void stale() throws InterruptedException {
+        Thread.sleep(100);
+    }
+
+    @Test
+    public void testFresh() throws IOException {
+        SearchCache cache = cache(Duration.ofMinutes(1));
+        assertFalse(cache.contains(QUERY));
+        fill(cache);
+        assertTrue(cache.isFresh(QUERY));
+        // Read back by a new instance
+        SearchCache restored = cache(Duration.ofMinutes(1));
+        assertTrue(restored.isFresh(QUERY));
+        assertEquals(250, restored.totalCount(QUERY));
+        assertEquals("page 2", read(restored.page(QUERY, 101, 200)));
+    }
+
+    @Test
+    public void testStaleValid() throws Exception {
+        SearchCache cache = cache(Duration.ofMillis(50));
+        fill(cache);
+        stale();
+        assertTrue(cache.contains(QUERY));
+        assertFalse(cache.isFresh(QUERY));
+        assertTrue(cache.revalidate(QUERY, 250));
+        assertTrue(cache.isFresh(QUERY));
+        assertEquals("page 1", read(cache.page(QUERY, 1, 100)));
+    }
+
+    @Test
+    public void testStaleChanged() throws Exception {
+        SearchCache cache = cache(Duration.ofMillis(50));
+        fill(cache);
+        stale();
+        assertFalse(cache.revalidate(QUERY, 251));
+        assertFalse(cache.contains(QUERY));
+        assertNull(cache.page(QUERY, 1, 100));
+        assertFalse(cache(Duration.ofMinutes(1)).contains(QUERY));
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        SearchCache cache = cache(Duration.ZERO);
+        fill(cache);
+        assertFalse(cache.contains(QUERY));
+        assertNull(cache.page(QUERY, 1, 100));
+    }
+
+    @Test
+    public void testPageLookup() throws IOException {
+        SearchCache cache = cache(Duration.ofMinutes(1));
+        fill(cache);
+        assertEquals(Integer.valueOf(100), cache.pageCount(QUERY, 1));
+        assertEquals(Integer.valueOf(200), cache.pageCount(QUERY, 101));
+        assertNull(cache.pageCount(QUERY, 2));
+        // Same start, but different count
+        assertNull(cache.page(QUERY, 1, 50));
+        assertNull(cache.page(QUERY, 51, 100));
+        assertEquals("page 1", read(cache.page(QUERY, 1, 100)));
+
+        // Replaced by a page with a different count
+        cache.store(QUERY, 1, 50, bytes("page 1a"));
+        assertEquals(Integer.valueOf(50), cache.pageCount(QUERY, 1));
+        assertNull(cache.page(QUERY, 1, 100));
+        assertEquals("page 1a", read(cache.page(QUERY, 1, 50)));
+        SearchCache restored = cache(Duration.ofMinutes(1));
+        assertEquals(Integer.valueOf(50), restored.pageCount(QUERY, 1));
+        assertEquals("page 2", read(restored.page(QUERY, 101, 200)));
+    }
+}